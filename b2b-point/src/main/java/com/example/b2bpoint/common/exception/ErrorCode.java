@@ -39,7 +39,9 @@ public enum ErrorCode {
     COUPON_ALREADY_ISSUED(HttpStatus.CONFLICT, "CP005", "이미 발급받은 쿠폰입니다."),
     COUPON_NOT_FOUND(HttpStatus.NOT_FOUND, "CP006", "쿠폰을 찾을 수 없습니다."),
     COUPON_OWNER_MISMATCH(HttpStatus.FORBIDDEN, "CP007", "쿠폰 사용 권한이 없습니다."),
-    COUPON_ALREADY_USED_OR_EXPIRED(HttpStatus.CONFLICT, "CP008", "이미 사용되었거나 만료된 쿠폰입니다.");
+    COUPON_ALREADY_USED_OR_EXPIRED(HttpStatus.CONFLICT, "CP008", "이미 사용되었거나 만료된 쿠폰입니다."),
+    COUPON_MIN_ORDER_AMOUNT_NOT_MET(HttpStatus.BAD_REQUEST, "CP009", "최소 주문 금액을 충족하지 않아 사용할 수 없는 쿠폰입니다."),
+    COUPON_CODE_DUPLICATED(HttpStatus.BAD_REQUEST, "CP010", "중복된 쿠폰 코드가 있습니다.");
 
 
     private final HttpStatus httpStatus;
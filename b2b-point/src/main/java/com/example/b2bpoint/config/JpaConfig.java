@@ -1,9 +1,21 @@
 package com.example.b2bpoint.config;
 
+import com.example.b2bpoint.common.domain.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @Configuration
 @EnableJpaAuditing
+@RequiredArgsConstructor
 public class JpaConfig {
+
+    // 엔티티 ID 생성기도 쿠폰 코드 생성기와 같은 인스턴스 노드 ID(node.id)를 사용합니다.
+    private final NodeIdentity nodeIdentity;
+
+    @PostConstruct
+    void configureIdGenerator() {
+        SnowflakeIdGenerator.configure(nodeIdentity.getNodeId());
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.b2bpoint.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 인스턴스의 노드 ID (node.id, 0~1023). 엔티티 ID 생성기와 쿠폰 코드 생성기처럼 시간 + 노드 + 시퀀스로 값을 만드는 생성기들이 함께 사용하므로
+ * 인스턴스마다 반드시 다른 값을 지정해야 합니다. 같은 값을 쓰는 두 인스턴스는 같은 ms 에 같은 값을 만들 수 있으므로,
+ * 임의 값으로 대신하지 않고 설정이 없거나 범위를 벗어나면 기동에 실패합니다.
+ */
+@Component
+public class NodeIdentity {
+
+    // 가장 좁은 노드 필드(엔티티 ID 생성기의 10비트)에 맞춘 범위
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private final int nodeId;
+
+    public NodeIdentity(@Value("${node.id:-1}") int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException(String.format(
+                    "node.id 는 인스턴스마다 다른 0~%d 사이 값으로 설정해야 합니다. (현재: %d)", MAX_NODE_ID, nodeId));
+        }
+        this.nodeId = nodeId;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+}
@@ -3,10 +3,13 @@ package com.example.b2bpoint.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -56,6 +59,25 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    // DIRECT 모드: 메시지를 batch-size 개 또는 receive-timeout-ms 까지 모아 한 번에 전달하고, 리스너가 정상 반환(커밋)한 뒤에 ack 합니다.
+    @Bean
+    @ConditionalOnProperty(name = "coupon.issue.consumer.mode", havingValue = "DIRECT")
+    public SimpleRabbitListenerContainerFactory couponIssueBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${coupon.issue.consumer.batch-size:500}") int batchSize,
+            @Value("${coupon.issue.consumer.receive-timeout-ms:200}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
     @Bean
     public FanoutExchange deadLetterExchange() {
         return new FanoutExchange(DLX_NAME);
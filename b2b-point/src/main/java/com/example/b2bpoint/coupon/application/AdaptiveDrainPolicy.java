@@ -0,0 +1,78 @@
+package com.example.b2bpoint.coupon.application;
+
+/**
+ * 관측된 저장 지연으로 청크 크기를, 남은 적체량으로 다음 실행 간격을 정합니다.
+ *
+ * <p>적체가 있는 동안 실행 간격은 최소값으로 유지되므로, 발급 요청이 DB 에 반영되기까지의 지연은
+ * 대략 "최소 간격 + 청크 하나의 저장 시간"입니다. 따라서 청크 하나의 저장 시간이
+ * target-delay - min-interval 을 넘지 않도록 메시지당 저장 시간(EWMA)으로 청크 크기를 조정합니다.
+ * 적체가 없으면 간격을 두 배씩 늘려 max-interval 까지 물러납니다.
+ * 청크 저장이 실패하면 적체와 관계없이 연속 실패 횟수만큼 간격을 두 배씩 늘려, 장애 중인 DB 에 재시도를 몰아치지 않습니다.
+ */
+class AdaptiveDrainPolicy {
+
+    private static final double ALPHA = 0.3;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long insertBudgetMs;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+
+    private volatile int chunkSize;
+    private volatile long intervalMs;
+    private volatile double msPerMessage = -1;
+    private volatile int consecutiveFailures;
+
+    AdaptiveDrainPolicy(int initialChunkSize, int minChunkSize, int maxChunkSize,
+                        long targetDelayMs, long minIntervalMs, long maxIntervalMs) {
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.insertBudgetMs = Math.max(1, targetDelayMs - minIntervalMs);
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.chunkSize = clamp(initialChunkSize, minChunkSize, maxChunkSize);
+        this.intervalMs = minIntervalMs;
+    }
+
+    void recordInsert(int size, long elapsedMs) {
+        if (size <= 0) {
+            return;
+        }
+        consecutiveFailures = 0;
+        double sample = Math.max((double) elapsedMs / size, 0.001);
+        msPerMessage = msPerMessage < 0 ? sample : ALPHA * sample + (1 - ALPHA) * msPerMessage;
+        chunkSize = clamp((long) (insertBudgetMs / msPerMessage), minChunkSize, maxChunkSize);
+    }
+
+    void recordFailure() {
+        consecutiveFailures++;
+    }
+
+    void recordRun(boolean drainedAny, long backlog) {
+        if (consecutiveFailures > 0) {
+            intervalMs = Math.min(maxIntervalMs, minIntervalMs << Math.min(consecutiveFailures, 20));
+        } else if (drainedAny || backlog > 0) {
+            intervalMs = minIntervalMs;
+        } else {
+            intervalMs = Math.min(maxIntervalMs, intervalMs * 2);
+        }
+    }
+
+    // 지금 버퍼에 들어온 요청이 DB 에 반영되기까지의 예상 지연
+    double estimatedLagMs(long backlog) {
+        return intervalMs + backlog * Math.max(msPerMessage, 0);
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    long intervalMs() {
+        return intervalMs;
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
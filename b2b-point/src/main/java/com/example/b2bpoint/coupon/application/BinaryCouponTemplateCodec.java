@@ -0,0 +1,139 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponType;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 필드 이름 없이 고정된 순서로 값을 기록하는 바이너리 형식.
+ * 첫 바이트는 형식 버전이며, 이어지는 2바이트 비트마스크가 각 필드의 존재 여부(null 아님)를 나타냅니다.
+ * 필드를 추가할 때는 VERSION 을 올리고 이전 버전의 decode 를 유지해야 합니다.
+ */
+@Component
+public class BinaryCouponTemplateCodec implements CouponTemplateCodec {
+
+    public static final String FORMAT = "BINARY";
+
+    // JSON('{' = 0x7B)과 겹치지 않는 값이어야 합니다.
+    static final byte VERSION = 0x01;
+
+    private static final int ID = 1;
+    private static final int PARTNER_ID = 1 << 1;
+    private static final int NAME = 1 << 2;
+    private static final int COUPON_TYPE = 1 << 3;
+    private static final int DISCOUNT_VALUE = 1 << 4;
+    private static final int MAX_DISCOUNT_AMOUNT = 1 << 5;
+    private static final int MIN_ORDER_AMOUNT = 1 << 6;
+    private static final int TOTAL_QUANTITY = 1 << 7;
+    private static final int STOCK_STRIPES = 1 << 8;
+    private static final int VALID_FROM = 1 << 9;
+    private static final int VALID_UNTIL = 1 << 10;
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+
+    @Override
+    public boolean supports(byte[] value) {
+        return value.length > 0 && value[0] == VERSION;
+    }
+
+    @Override
+    public byte[] encode(CouponTemplateCacheDto t) {
+        int mask = (t.getId() != null ? ID : 0)
+                | (t.getPartnerId() != null ? PARTNER_ID : 0)
+                | (t.getName() != null ? NAME : 0)
+                | (t.getCouponType() != null ? COUPON_TYPE : 0)
+                | (t.getDiscountValue() != null ? DISCOUNT_VALUE : 0)
+                | (t.getMaxDiscountAmount() != null ? MAX_DISCOUNT_AMOUNT : 0)
+                | (t.getMinOrderAmount() != null ? MIN_ORDER_AMOUNT : 0)
+                | (t.getTotalQuantity() != null ? TOTAL_QUANTITY : 0)
+                | (t.getStockStripes() != null ? STOCK_STRIPES : 0)
+                | (t.getValidFrom() != null ? VALID_FROM : 0)
+                | (t.getValidUntil() != null ? VALID_UNTIL : 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(mask);
+            if (t.getId() != null) out.writeLong(t.getId());
+            if (t.getPartnerId() != null) out.writeLong(t.getPartnerId());
+            if (t.getName() != null) out.writeUTF(t.getName());
+            if (t.getCouponType() != null) out.writeUTF(t.getCouponType().name());
+            if (t.getDiscountValue() != null) writeDecimal(out, t.getDiscountValue());
+            if (t.getMaxDiscountAmount() != null) out.writeInt(t.getMaxDiscountAmount());
+            if (t.getMinOrderAmount() != null) out.writeInt(t.getMinOrderAmount());
+            if (t.getTotalQuantity() != null) out.writeInt(t.getTotalQuantity());
+            if (t.getStockStripes() != null) out.writeInt(t.getStockStripes());
+            if (t.getValidFrom() != null) writeDateTime(out, t.getValidFrom());
+            if (t.getValidUntil() != null) writeDateTime(out, t.getValidUntil());
+        } catch (IOException e) {
+            throw new IllegalStateException("쿠폰 템플릿 바이너리 직렬화 실패", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public CouponTemplateCacheDto decode(byte[] value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("지원하지 않는 쿠폰 템플릿 캐시 버전: " + version);
+            }
+            int mask = in.readUnsignedShort();
+            return CouponTemplateCacheDto.builder()
+                    .id(has(mask, ID) ? in.readLong() : null)
+                    .partnerId(has(mask, PARTNER_ID) ? in.readLong() : null)
+                    .name(has(mask, NAME) ? in.readUTF() : null)
+                    .couponType(has(mask, COUPON_TYPE) ? CouponType.valueOf(in.readUTF()) : null)
+                    .discountValue(has(mask, DISCOUNT_VALUE) ? readDecimal(in) : null)
+                    .maxDiscountAmount(has(mask, MAX_DISCOUNT_AMOUNT) ? in.readInt() : null)
+                    .minOrderAmount(has(mask, MIN_ORDER_AMOUNT) ? in.readInt() : null)
+                    .totalQuantity(has(mask, TOTAL_QUANTITY) ? in.readInt() : null)
+                    .stockStripes(has(mask, STOCK_STRIPES) ? in.readInt() : null)
+                    .validFrom(has(mask, VALID_FROM) ? readDateTime(in) : null)
+                    .validUntil(has(mask, VALID_UNTIL) ? readDateTime(in) : null)
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("쿠폰 템플릿 바이너리 역직렬화 실패", e);
+        }
+    }
+
+    private static boolean has(int mask, int field) {
+        return (mask & field) != 0;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
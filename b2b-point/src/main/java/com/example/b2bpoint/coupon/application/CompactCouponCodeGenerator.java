@@ -0,0 +1,96 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.config.NodeIdentity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 시간(ms) 42비트 + 노드 12비트 + 스레드 슬롯 20비트 + 시퀀스 22비트로 이루어진 96비트 값을 Base62 17자로 인코딩합니다.
+ * 시퀀스 상태는 스레드별로 두므로 락이나 CAS 경합이 없고, 같은 노드의 스레드들은 슬롯이 달라 서로 충돌하지 않습니다.
+ * 알파벳이 ASCII 순서라 코드의 사전순이 발급 시각 순서와 같아, 유니크 인덱스에는 대부분 오른쪽 끝에 삽입됩니다.
+ */
+@Component
+@ConditionalOnProperty(name = "coupon.code.format", havingValue = "COMPACT", matchIfMissing = true)
+public class CompactCouponCodeGenerator implements CouponCodeGenerator {
+
+    static final int CODE_LENGTH = 17;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    static final int NODE_BITS = 12;
+    private static final int SLOT_BITS = 20;
+    private static final int SEQUENCE_BITS = 22;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final int nodeId;
+
+    // 슬롯은 스레드가 처음 코드를 만들 때 할당되며, 2^20 개의 스레드가 생성된 뒤에야 재사용됩니다.
+    private final AtomicInteger slotSequence = new AtomicInteger();
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(
+            () -> new State(slotSequence.getAndIncrement() & ((1 << SLOT_BITS) - 1)));
+
+    // 노드 ID 는 인스턴스 공통 설정(node.id)을 사용하며, 설정이 없으면 기동에 실패합니다.
+    @Autowired
+    public CompactCouponCodeGenerator(NodeIdentity nodeIdentity) {
+        this(nodeIdentity.getNodeId());
+    }
+
+    CompactCouponCodeGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String generate() {
+        State current = state.get();
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        if (now > current.lastMillis) {
+            current.lastMillis = now;
+            current.sequence = 0;
+        } else if (++current.sequence > SEQUENCE_MASK) {
+            // 시퀀스를 다 쓰거나 시계가 뒤로 가면 다음 ms 를 앞당겨 사용해 단조 증가를 유지합니다.
+            current.lastMillis++;
+            current.sequence = 0;
+        }
+
+        long time = current.lastMillis;
+        long high = time >>> (64 - SEQUENCE_BITS - SLOT_BITS - NODE_BITS);
+        long low = (time << (SEQUENCE_BITS + SLOT_BITS + NODE_BITS))
+                | ((long) nodeId << (SEQUENCE_BITS + SLOT_BITS))
+                | ((long) current.slot << SEQUENCE_BITS)
+                | current.sequence;
+        return encode(high, low);
+    }
+
+    // 상위 32비트(high)와 하위 64비트(low)를 고정 길이 Base62 로 인코딩합니다.
+    static String encode(long high, long low) {
+        long[] words = {high & 0xFFFFFFFFL, low >>> 32, low & 0xFFFFFFFFL};
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            long remainder = 0;
+            for (int j = 0; j < words.length; j++) {
+                long dividend = (remainder << 32) | words[j];
+                words[j] = dividend / ALPHABET.length;
+                remainder = dividend % ALPHABET.length;
+            }
+            code[i] = ALPHABET[(int) remainder];
+        }
+        return new String(code);
+    }
+
+    private static final class State {
+        private final int slot;
+        private long lastMillis = -1;
+        private long sequence;
+
+        private State(int slot) {
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.b2bpoint.coupon.application;
+
+/**
+ * 쿠폰 코드 생성 전략. 생성된 코드는 coupons.code 의 유니크 키로 저장되므로 노드/스레드 사이에서 충돌하지 않아야 합니다.
+ * 사용 시 소유자(파트너/사용자)를 함께 확인하므로 코드 자체가 추측 불가능할 필요는 없습니다. 구현은 coupon.code.format 설정으로 선택합니다.
+ */
+public interface CouponCodeGenerator {
+
+    String generate();
+}
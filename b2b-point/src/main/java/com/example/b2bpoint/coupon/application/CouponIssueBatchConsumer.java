@@ -0,0 +1,148 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * coupon.issue.consumer.mode=DIRECT 일 때 Redis 버퍼와 스케줄러를 거치지 않고
+ * 큐에서 모은 메시지를 바로 DB 에 반영합니다. 컨테이너는 리스너가 정상 반환한 뒤에만 ack 하므로
+ * 트랜잭션이 커밋되기 전에 메시지가 사라지지 않습니다.
+ *
+ * <p>데드락, 커넥션 풀 대기 초과 같은 일시적인 DB 오류는 retry.max-attempts 까지 재시도하고,
+ * 그래도 실패하면 배치를 큐로 되돌립니다. 그 밖의 오류는 메시지를 하나씩 다시 저장해 실패한 메시지만 DLQ 로 보냅니다.
+ * 저장은 (템플릿, 사용자) 기준으로 멱등하므로 이미 저장된 메시지가 다시 전달되어도 중복 발급되지 않습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.consumer.mode", havingValue = "DIRECT")
+public class CouponIssueBatchConsumer {
+
+    private static final String DLX_NAME = "coupon.exchange.dlx";
+    private static final String DLQ_ROUTING_KEY = "dead.letter";
+
+    private final CouponIssueSyncService couponIssueSyncService;
+    private final MessageConverter messageConverter;
+    private final RabbitTemplate rabbitTemplate;
+    private final CouponIssueTicketStore couponIssueTicketStore;
+
+    @Value("${coupon.issue.consumer.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${coupon.issue.consumer.retry.backoff-ms:200}")
+    private long backoffMs;
+
+    private RetryTemplate retryTemplate;
+
+    @PostConstruct
+    void init() {
+        retryTemplate = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .exponentialBackoff(backoffMs, 2, backoffMs * 10)
+                .retryOn(CouponIssueFailures.TRANSIENT_ERRORS)
+                .traversingCauses()
+                .build();
+    }
+
+    @RabbitListener(queues = "coupon.issue.queue", containerFactory = "couponIssueBatchContainerFactory")
+    public void receive(List<Message> amqpMessages) {
+        List<CouponIssueMessage> messages = new ArrayList<>(amqpMessages.size());
+        boolean requeue = false;
+        for (Message amqpMessage : amqpMessages) {
+            requeue |= !collect(amqpMessage, messages);
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                issue(messages);
+                log.debug("쿠폰 발급 배치 저장 성공: size: {}", messages.size());
+            } catch (RuntimeException e) {
+                if (CouponIssueFailures.isTransient(e)) {
+                    throw requeue("일시적인 DB 오류로 배치 저장 실패. 배치를 큐로 되돌립니다.", e);
+                }
+                log.warn("쿠폰 발급 배치 저장 실패 size: {}. 메시지별로 다시 저장합니다. Error: {}", messages.size(), e.getMessage());
+                issueOneByOne(messages);
+            }
+        }
+
+        if (requeue) {
+            throw requeue("DLQ 전송에 실패한 메시지가 있어 배치를 큐로 되돌립니다.", null);
+        }
+    }
+
+    private void issueOneByOne(List<CouponIssueMessage> messages) {
+        for (CouponIssueMessage message : messages) {
+            try {
+                issue(List.of(message));
+            } catch (RuntimeException e) {
+                if (CouponIssueFailures.isTransient(e)) {
+                    throw requeue("일시적인 DB 오류로 메시지 저장 실패. 배치를 큐로 되돌립니다.", e);
+                }
+                deadLetter(message, e);
+            }
+        }
+    }
+
+    private void issue(List<CouponIssueMessage> messages) {
+        retryTemplate.execute(context -> {
+            couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+            return null;
+        });
+    }
+
+    private void deadLetter(CouponIssueMessage message, RuntimeException cause) {
+        log.error("쿠폰 발급 메시지 저장 실패. DLQ로 보냅니다. templateId: {}, userId: {}, Error: {}",
+                message.getCouponTemplateId(), message.getUserId(), cause.getMessage());
+        try {
+            rabbitTemplate.convertAndSend(DLX_NAME, DLQ_ROUTING_KEY, message);
+        } catch (AmqpException e) {
+            // 보내지 못한 메시지를 잃지 않도록 배치를 되돌립니다. 이미 저장된 메시지는 재전달 때 무시됩니다.
+            throw requeue("DLQ 전송 실패. 배치를 큐로 되돌립니다.", e);
+        }
+        couponIssueTicketStore.markFailed(List.of(message));
+    }
+
+    // 변환할 수 없는 메시지는 배치 전체를 실패시키지 않도록 개별적으로 DLQ 로 보냅니다. DLQ 전송에 실패하면 false 를 반환합니다.
+    private boolean collect(Message amqpMessage, List<CouponIssueMessage> messages) {
+        try {
+            Object payload = messageConverter.fromMessage(amqpMessage);
+            if (payload instanceof CouponIssueBatchMessage batch) {
+                messages.addAll(batch.getMessages());
+            } else if (payload instanceof CouponIssueMessage message) {
+                messages.add(message);
+            } else {
+                throw new IllegalArgumentException("알 수 없는 메시지 타입: " + payload.getClass().getName());
+            }
+        } catch (Exception e) {
+            log.error("쿠폰 발급 메시지 변환 실패. DLQ로 보냅니다. Error: {}", e.getMessage());
+            try {
+                rabbitTemplate.send(DLX_NAME, DLQ_ROUTING_KEY, amqpMessage);
+            } catch (AmqpException sendFailure) {
+                log.error("변환 실패 메시지의 DLQ 전송 실패. Error: {}", sendFailure.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ImmediateRequeueAmqpException requeue(String message, Throwable cause) {
+        log.warn(message);
+        return new ImmediateRequeueAmqpException(message, cause);
+    }
+}
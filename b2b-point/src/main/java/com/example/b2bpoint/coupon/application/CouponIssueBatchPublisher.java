@@ -0,0 +1,207 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.common.exception.CustomException;
+import com.example.b2bpoint.common.exception.ErrorCode;
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발급 메시지를 linger-ms 동안(또는 batch-size 개가 찰 때까지) 모았다가 CouponIssueBatchMessage 하나로 전송합니다.
+ * 배치 단위로 publisher confirm 을 받고, 그 결과로 메시지별 future 를 완료합니다.
+ * nack 이나 전송 실패만 예외로 완료하며, 확인 시간 초과는 CouponIssueProducer 와 같이 예약을 유지하도록 정상 완료합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponIssueBatchPublisher {
+
+    private static final String EXCHANGE_NAME = "coupon.exchange";
+    private static final String ROUTING_KEY = "coupon.issue.batch";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${coupon.issue.producer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${coupon.issue.producer.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${coupon.issue.producer.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${coupon.issue.producer.in-flight-wait-ms:100}")
+    private long inFlightWaitMs;
+
+    @Value("${coupon.issue.producer.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${coupon.issue.producer.callback-threads:4}")
+    private int callbackThreads;
+
+    private final BlockingQueue<PendingMessage> buffer = new LinkedBlockingQueue<>();
+    private Semaphore inFlight;
+    private ExecutorService flusher;
+    private ExecutorService confirmExecutor;
+    private volatile boolean running;
+
+    private record PendingMessage(CouponIssueMessage message, CompletableFuture<Void> future) {
+    }
+
+    void start() {
+        inFlight = new Semaphore(maxInFlight);
+        confirmExecutor = Executors.newFixedThreadPool(callbackThreads, daemon("coupon-issue-batch-confirm"));
+        flusher = Executors.newSingleThreadExecutor(daemon("coupon-issue-batch-flusher"));
+        running = true;
+        flusher.submit(this::flushLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdownNow();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 직전까지 쌓인 메시지도 전송합니다.
+        List<PendingMessage> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            publish(remaining);
+        }
+        confirmExecutor.shutdown();
+    }
+
+    public CompletableFuture<Void> send(CouponIssueMessage message) {
+        acquireInFlight();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        buffer.add(new PendingMessage(message, future));
+        return future;
+    }
+
+    private void flushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingMessage first = buffer.take();
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    PendingMessage next = buffer.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    publish(batch);
+                }
+                return;
+            } catch (Exception e) {
+                log.error("쿠폰 발급 배치 전송 루프 오류", e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void publish(List<PendingMessage> batch) {
+        List<CouponIssueMessage> messages = batch.stream().map(PendingMessage::message).toList();
+        CorrelationData correlationData = new CorrelationData();
+
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, new CouponIssueBatchMessage(messages), correlationData);
+        } catch (Exception e) {
+            complete(batch, e);
+            return;
+        }
+
+        correlationData.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((confirm, throwable) -> {
+                    if (throwable != null) {
+                        log.warn("Publisher confirm 대기 시간 초과. 예약을 유지합니다. size: {}", batch.size());
+                        complete(batch, null);
+                    } else if (!confirm.isAck()) {
+                        complete(batch, new AmqpException("브로커가 메시지를 거부했습니다: " + confirm.getReason()));
+                    } else {
+                        complete(batch, null);
+                    }
+                }, confirmExecutor);
+    }
+
+    private void complete(List<PendingMessage> batch, Throwable failure) {
+        inFlight.release(batch.size());
+        if (failure != null) {
+            log.error("쿠폰 발급 배치 전송 실패. size: {}", batch.size(), failure);
+        }
+        for (PendingMessage pending : batch) {
+            if (failure == null) {
+                pending.future().complete(null);
+            } else {
+                // 실패 콜백은 예약 취소로 Redis 를 호출하므로, 한 스레드가 배치 전체를 순서대로 처리하지 않게 나눕니다.
+                completeExceptionally(pending, failure);
+            }
+        }
+    }
+
+    private void completeExceptionally(PendingMessage pending, Throwable failure) {
+        try {
+            confirmExecutor.execute(() -> pending.future().completeExceptionally(failure));
+        } catch (RejectedExecutionException e) {
+            pending.future().completeExceptionally(failure);
+        }
+    }
+
+    private void acquireInFlight() {
+        try {
+            if (!inFlight.tryAcquire(inFlightWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new CustomException(ErrorCode.MESSAGING_SYSTEM_ERROR);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(ErrorCode.MESSAGING_SYSTEM_ERROR);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
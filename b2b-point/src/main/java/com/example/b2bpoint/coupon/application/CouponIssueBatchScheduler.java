@@ -3,67 +3,435 @@ package com.example.b2bpoint.coupon.application;
 import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Redis 요청 버퍼를 chunk-size 단위로 나눠 DB 에 반영합니다.
+ * 각 청크는 스크립트로 이 노드의 처리 중 리스트로 옮겨진 뒤 저장되며, 커밋이 끝난 청크만 삭제됩니다.
+ * 저장에 실패한 청크는 처리 중 리스트에 남아 다음 실행에서 먼저 재처리됩니다.
+ * 청크 크기와 실행 간격은 {@link AdaptiveDrainPolicy} 가 적체량과 저장 지연에 맞춰 조정합니다.
+ * 각 노드는 하트비트 키를 갱신하며, 하트비트가 끊긴 노드의 처리 중 리스트는 다른 노드가 회수 리스트로 가져와
+ * 자신의 청크와 섞지 않고 청크 크기 단위로 나눠 재처리합니다(저장은 멱등).
+ * 같은 청크가 일시적이지 않은 오류로 max-attempts 번 실패하면 청크를 반씩 나눠 저장하고,
+ * 한 건만으로도 실패하는 요청은 사유와 함께 coupon:issue:requests:dead 로 옮겨 나머지 요청의 저장을 막지 않습니다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.buffer.type", havingValue = "LIST", matchIfMissing = true)
 public class CouponIssueBatchScheduler {
 
     private final StringRedisTemplate redisTemplate;
     private final CouponIssueSyncService couponIssueSyncService;
     private final ObjectMapper objectMapper;
-    private static final String COUPON_ISSUE_REQUEST_LIST_KEY = "coupon:issue:requests";
+    private final MeterRegistry meterRegistry;
+    private final CouponIssueTicketStore couponIssueTicketStore;
+    private static final String COUPON_ISSUE_REQUEST_LIST_KEY = RedisListCouponIssueBuffer.COUPON_ISSUE_REQUEST_LIST_KEY;
+    private static final String PROCESSING_KEY_PREFIX = COUPON_ISSUE_REQUEST_LIST_KEY + ":processing:";
+    private static final String HEARTBEAT_KEY_PREFIX = COUPON_ISSUE_REQUEST_LIST_KEY + ":heartbeat:";
+    private static final String ATTEMPTS_KEY_PREFIX = COUPON_ISSUE_REQUEST_LIST_KEY + ":attempts:";
+    static final String DEAD_LETTER_KEY = COUPON_ISSUE_REQUEST_LIST_KEY + ":dead";
 
-    @Scheduled(fixedDelay = 10000)
+    private static final RedisScript<List> DRAIN_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_issue_drain.lua"), List.class);
+    private static final RedisScript<Long> RECOVER_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_issue_recover.lua"), Long.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String processingKey = PROCESSING_KEY_PREFIX + nodeId;
+    private final String heartbeatKey = HEARTBEAT_KEY_PREFIX + nodeId;
+    private final String attemptsKey = attemptsKeyOf(processingKey);
+    // 이 노드가 회수해 재처리 중인 리스트 (processing:{nodeId}:{원래 소유 노드}...)
+    private final Set<String> recoveredKeys = new LinkedHashSet<>();
+
+    @Value("${coupon.issue.drain.chunk-size:1000}")
+    private int initialChunkSize;
+
+    @Value("${coupon.issue.drain.min-chunk-size:100}")
+    private int minChunkSize;
+
+    @Value("${coupon.issue.drain.max-chunk-size:10000}")
+    private int maxChunkSize;
+
+    @Value("${coupon.issue.drain.target-delay-ms:1000}")
+    private long targetDelayMs;
+
+    @Value("${coupon.issue.drain.min-interval-ms:100}")
+    private long minIntervalMs;
+
+    @Value("${coupon.issue.drain.max-interval-ms:5000}")
+    private long maxIntervalMs;
+
+    // 이 시간 동안 하트비트가 갱신되지 않은 노드의 처리 중 리스트는 다른 노드가 가져갑니다.
+    @Value("${coupon.issue.drain.heartbeat-ttl-ms:30000}")
+    private long heartbeatTtlMs;
+
+    @Value("${coupon.issue.drain.recovery-interval-ms:60000}")
+    private long recoveryIntervalMs;
+
+    // 같은 청크가 이 횟수만큼 실패하면 나눠서 저장하고 실패하는 요청을 데드레터로 옮깁니다.
+    @Value("${coupon.issue.drain.max-attempts:3}")
+    private int maxAttempts;
+
+    private AdaptiveDrainPolicy policy;
+    private Timer insertTimer;
+    private Counter recoveredCounter;
+    private Counter deadLetteredCounter;
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile long nextRunAt;
+    private long nextHeartbeatAt;
+    private long nextRecoveryAt;
+
+    @PostConstruct
+    void init() {
+        policy = new AdaptiveDrainPolicy(initialChunkSize, minChunkSize, maxChunkSize,
+                targetDelayMs, minIntervalMs, maxIntervalMs);
+
+        Gauge.builder("coupon.issue.drain.batch.size", policy, AdaptiveDrainPolicy::chunkSize)
+                .description("현재 청크 크기")
+                .register(meterRegistry);
+        Gauge.builder("coupon.issue.drain.interval", policy, AdaptiveDrainPolicy::intervalMs)
+                .description("다음 실행까지의 간격")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("coupon.issue.drain.backlog", backlog, AtomicLong::get)
+                .description("요청 버퍼에 남은 발급 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("coupon.issue.drain.lag", this, scheduler -> scheduler.policy.estimatedLagMs(scheduler.backlog.get()))
+                .description("버퍼에 들어온 요청이 DB 에 반영되기까지의 예상 지연")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        insertTimer = Timer.builder("coupon.issue.drain.insert")
+                .description("청크 하나의 DB 저장 시간")
+                .register(meterRegistry);
+        recoveredCounter = Counter.builder("coupon.issue.drain.recovered")
+                .description("중단된 노드의 처리 중 리스트에서 회수한 발급 요청 수")
+                .register(meterRegistry);
+        deadLetteredCounter = Counter.builder("coupon.issue.drain.dead")
+                .description("저장에 반복해서 실패해 데드레터 리스트로 옮긴 발급 요청 수")
+                .register(meterRegistry);
+
+        // 재시작 직후에는 죽은 노드의 하트비트가 아직 남아 있으므로 TTL 이 지난 뒤부터 회수합니다.
+        nextRecoveryAt = System.currentTimeMillis() + heartbeatTtlMs;
+    }
+
+    // 정상 종료 시 하트비트를 지워, 남은 처리 중 청크를 다른 노드가 바로 회수할 수 있게 합니다.
+    @PreDestroy
+    void shutdown() {
+        redisTemplate.delete(heartbeatKey);
+    }
+
+    // 최소 간격마다 깨어나되, 적체가 없으면 정책이 정한 간격이 지날 때까지 건너뜁니다.
+    @Scheduled(fixedDelayString = "${coupon.issue.drain.min-interval-ms:100}")
     public void processCouponIssueRequests() {
-        if (Boolean.FALSE.equals(redisTemplate.hasKey(COUPON_ISSUE_REQUEST_LIST_KEY))) {
+        heartbeatIfDue();
+        if (System.currentTimeMillis() >= nextRecoveryAt) {
+            nextRecoveryAt = System.currentTimeMillis() + recoveryIntervalMs;
+            if (recoverOrphanedChunks() > 0) {
+                nextRunAt = 0;
+            }
+        }
+
+        if (System.currentTimeMillis() < nextRunAt) {
             return;
         }
-        String processingKey = COUPON_ISSUE_REQUEST_LIST_KEY + ":processing:" + UUID.randomUUID();
 
+        boolean drainedAny = drain();
 
-        try {
+        Long remaining = redisTemplate.opsForList().size(COUPON_ISSUE_REQUEST_LIST_KEY);
+        backlog.set(remaining == null ? 0 : remaining);
+        policy.recordRun(drainedAny, backlog.get());
+        nextRunAt = System.currentTimeMillis() + policy.intervalMs();
+    }
 
-            Boolean renamed = redisTemplate.renameIfAbsent(COUPON_ISSUE_REQUEST_LIST_KEY, processingKey);
+    private boolean drain() {
+        // 이전 실행에서 커밋되지 못한 청크가 있으면 먼저 처리합니다.
+        List<String> pending = redisTemplate.opsForList().range(processingKey, 0, -1);
+        if (pending != null && !pending.isEmpty() && !processDrainedChunk(pending)) {
+            return false;
+        }
+
+        boolean drainedAny = pending != null && !pending.isEmpty();
+        drainedAny |= redriveRecovered();
+        List<String> chunk;
+        int requested;
+        do {
+            heartbeatIfDue();
+            requested = policy.chunkSize();
+            chunk = drainChunk(requested);
+            if (chunk.isEmpty() || !processDrainedChunk(chunk)) {
+                return drainedAny;
+            }
+            drainedAny = true;
+        } while (chunk.size() == requested);
+        return drainedAny;
+    }
 
-            if (Boolean.TRUE.equals(renamed)) {
-                List<String> messageJsonList = redisTemplate.opsForList().range(processingKey, 0, -1);
+    private void heartbeatIfDue() {
+        long now = System.currentTimeMillis();
+        if (now < nextHeartbeatAt) {
+            return;
+        }
+        redisTemplate.opsForValue().set(heartbeatKey, String.valueOf(now), Duration.ofMillis(heartbeatTtlMs));
+        nextHeartbeatAt = now + heartbeatTtlMs / 3;
+    }
 
-                if (messageJsonList == null || messageJsonList.isEmpty()) {
-                    return;
+    /**
+     * 하트비트가 없는 노드의 처리 중 리스트를 이 노드의 회수 리스트로 옮깁니다. 회수 리스트는 원래 소유 노드별로 따로 두며,
+     * 바로 이어지는 drain 에서 청크 크기 단위로 재처리됩니다. 이미 저장된 쿠폰은 무시되므로 중복 발급되지 않습니다.
+     *
+     * @return 회수한 발급 요청 수
+     */
+    int recoverOrphanedChunks() {
+        List<String> orphanedKeys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(PROCESSING_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(key -> {
+                if (!ownerOf(key).equals(nodeId)) {
+                    orphanedKeys.add(key);
                 }
+            });
+        } catch (Exception e) {
+            log.warn("처리 중 리스트 조회 실패", e);
+            return 0;
+        }
 
-                List<CouponIssueMessage> messages = messageJsonList.stream()
-                        .map(json -> {
-                            try {
-                                return objectMapper.readValue(json, CouponIssueMessage.class);
-                            } catch (JsonProcessingException e) {
-                                log.error("메시지 역직렬화 실패: {}", json, e);
-                                return null;
-                            }
-                        })
-                        .filter(Objects::nonNull)
-                        .toList();
-
-                if (!messages.isEmpty()) {
-                    log.info("{}개의 쿠폰 발급 요청을 배치 처리합니다.", messages.size());
-                    couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+        int recovered = 0;
+        for (String orphanedKey : orphanedKeys) {
+            String owner = ownerOf(orphanedKey);
+            String recoveredKey = processingKey + ":" + orphanedKey.substring(PROCESSING_KEY_PREFIX.length());
+            Long moved = redisTemplate.execute(RECOVER_SCRIPT, List.of(orphanedKey, HEARTBEAT_KEY_PREFIX + owner,
+                    recoveredKey, attemptsKeyOf(orphanedKey)));
+            if (moved != null && moved > 0) {
+                log.warn("하트비트가 끊긴 노드의 처리 중 요청 {}건을 회수했습니다. owner: {}", moved, owner);
+                recoveredKeys.add(recoveredKey);
+                recovered += moved.intValue();
+            }
+        }
+
+        if (recovered > 0) {
+            recoveredCounter.increment(recovered);
+        }
+        return recovered;
+    }
 
+    /**
+     * 회수 리스트를 앞에서부터 청크 크기만큼 나눠 저장하고, 저장된 청크만 리스트에서 잘라냅니다.
+     * 실패한 회수 리스트는 자기 실패 횟수에 따라 나눠 저장/데드레터 처리되며, 그동안에도 이 노드의 요청 버퍼 처리는 막지 않습니다.
+     *
+     * @return 저장한 청크가 있으면 true
+     */
+    private boolean redriveRecovered() {
+        boolean drainedAny = false;
+        for (Iterator<String> iterator = recoveredKeys.iterator(); iterator.hasNext(); ) {
+            String recoveredKey = iterator.next();
+            String recoveredAttemptsKey = attemptsKeyOf(recoveredKey);
+            while (true) {
+                heartbeatIfDue();
+                int size = policy.chunkSize();
+                List<String> chunk = redisTemplate.opsForList().range(recoveredKey, 0, size - 1);
+                if (chunk == null || chunk.isEmpty()) {
+                    iterator.remove();
+                    break;
                 }
+                if (!processChunk(chunk, recoveredAttemptsKey)) {
+                    break;
+                }
+                redisTemplate.opsForList().trim(recoveredKey, chunk.size(), -1);
+                redisTemplate.delete(recoveredAttemptsKey);
+                drainedAny = true;
+                if (chunk.size() < size) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+        return drainedAny;
+    }
 
+    // processing:{owner} 또는 회수 리스트 processing:{owner}:{원래 소유 노드}... 의 소유 노드
+    private static String ownerOf(String processingKey) {
+        String suffix = processingKey.substring(PROCESSING_KEY_PREFIX.length());
+        int separator = suffix.indexOf(':');
+        return separator < 0 ? suffix : suffix.substring(0, separator);
+    }
+
+    private static String attemptsKeyOf(String processingKey) {
+        return ATTEMPTS_KEY_PREFIX + processingKey.substring(PROCESSING_KEY_PREFIX.length());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> drainChunk(int size) {
+        List<String> chunk = redisTemplate.execute(DRAIN_SCRIPT,
+                List.of(COUPON_ISSUE_REQUEST_LIST_KEY, processingKey), String.valueOf(size));
+        return chunk == null ? List.of() : chunk;
+    }
+
+    // 처리 중 리스트에 옮겨 둔 청크를 저장하고, 성공하면 처리 중 리스트를 비웁니다.
+    private boolean processDrainedChunk(List<String> messageJsonList) {
+        if (!processChunk(messageJsonList, attemptsKey)) {
+            return false;
+        }
+        redisTemplate.delete(List.of(processingKey, attemptsKey));
+        return true;
+    }
+
+    /**
+     * 청크를 저장합니다. 일시적인 오류는 시도 횟수에 넣지 않고 다음 실행에서 그대로 재처리하며,
+     * 그 밖의 오류는 attemptsKey 에 실패 횟수를 세어 max-attempts 에 이르면 나눠 저장하고 실패하는 요청을 데드레터로 옮깁니다.
+     *
+     * @return 청크를 모두 저장했거나 데드레터로 옮겼으면 true
+     */
+    private boolean processChunk(List<String> messageJsonList, String attemptsKey) {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        List<CouponIssueMessage> messages = deserialize(messageJsonList, deadLetters);
+
+        try {
+            store(messages);
+        } catch (Exception e) {
+            if (CouponIssueFailures.isTransient(e)) {
+                log.error("쿠폰 발급 배치 처리 실패(일시적 오류). 다음 실행에서 재처리합니다. size: {}", messages.size(), e);
+                policy.recordFailure();
+                return false;
             }
+            Long attempts = redisTemplate.opsForValue().increment(attemptsKey);
+            if (attempts == null || attempts < maxAttempts) {
+                log.error("쿠폰 발급 배치 처리 실패. 다음 실행에서 재처리합니다. size: {}, attempts: {}/{}",
+                        messages.size(), attempts, maxAttempts, e);
+                policy.recordFailure();
+                return false;
+            }
+            log.error("쿠폰 발급 배치가 {}번 실패했습니다. 나눠서 저장하고 실패하는 요청은 데드레터로 옮깁니다. size: {}",
+                    attempts, messages.size(), e);
+            if (!isolate(messages, e, deadLetters)) {
+                policy.recordFailure();
+                return false;
+            }
+        }
+
+        deadLetter(deadLetters);
+        return true;
+    }
 
-        } finally {
-            redisTemplate.delete(processingKey);
+    private List<CouponIssueMessage> deserialize(List<String> messageJsonList, List<DeadLetter> deadLetters) {
+        List<CouponIssueMessage> messages = new ArrayList<>(messageJsonList.size());
+        for (String json : messageJsonList) {
+            try {
+                messages.add(objectMapper.readValue(json, CouponIssueMessage.class));
+            } catch (JsonProcessingException e) {
+                log.error("메시지 역직렬화 실패: {}", json, e);
+                deadLetters.add(new DeadLetter(json, null, CouponIssueFailures.reason(e)));
+            }
+        }
+        return messages;
+    }
+
+    private void store(List<CouponIssueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
         }
+        log.info("{}개의 쿠폰 발급 요청을 배치 처리합니다.", messages.size());
+        long startedAt = System.nanoTime();
+        couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        insertTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        policy.recordInsert(messages.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * 실패한 요청 목록을 반씩 나눠 저장하고, 한 건만으로도 실패하는 요청을 deadLetters 에 모읍니다.
+     * 이미 저장된 요청은 다시 저장해도 무시되므로 중간에 중단되어도 다음 실행에서 처음부터 다시 나눌 수 있습니다.
+     *
+     * @return 일시적인 오류로 중단되었으면 false
+     */
+    private boolean isolate(List<CouponIssueMessage> messages, Exception cause, List<DeadLetter> deadLetters) {
+        if (messages.size() == 1) {
+            deadLetters.add(new DeadLetter(toJson(messages.get(0)), messages.get(0), CouponIssueFailures.reason(cause)));
+            return true;
+        }
+        int middle = messages.size() / 2;
+        return storeOrIsolate(messages.subList(0, middle), deadLetters)
+                && storeOrIsolate(messages.subList(middle, messages.size()), deadLetters);
+    }
+
+    private boolean storeOrIsolate(List<CouponIssueMessage> messages, List<DeadLetter> deadLetters) {
+        try {
+            store(messages);
+            return true;
+        } catch (Exception e) {
+            if (CouponIssueFailures.isTransient(e)) {
+                log.error("실패한 요청을 나눠 저장하던 중 일시적 오류가 발생했습니다. 다음 실행에서 재처리합니다.", e);
+                return false;
+            }
+            return isolate(messages, e, deadLetters);
+        }
+    }
+
+    // 데드레터 항목은 원본 메시지와 실패 사유, 시각을 담은 JSON 입니다.
+    private void deadLetter(List<DeadLetter> deadLetters) {
+        if (deadLetters.isEmpty()) {
+            return;
+        }
+        String failedAt = LocalDateTime.now().toString();
+        List<String> entries = deadLetters.stream()
+                .map(deadLetter -> {
+                    Map<String, String> entry = new LinkedHashMap<>();
+                    entry.put("message", deadLetter.payload());
+                    entry.put("reason", deadLetter.reason());
+                    entry.put("failedAt", failedAt);
+                    return toJson(entry);
+                })
+                .toList();
+        redisTemplate.opsForList().leftPushAll(DEAD_LETTER_KEY, entries);
+        log.error("저장할 수 없는 쿠폰 발급 요청 {}건을 {} 로 옮겼습니다. reasons: {}", deadLetters.size(), DEAD_LETTER_KEY,
+                deadLetters.stream().map(DeadLetter::reason).distinct().toList());
+        deadLetteredCounter.increment(deadLetters.size());
+
+        couponIssueTicketStore.markFailed(deadLetters.stream()
+                .map(DeadLetter::message)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("데드레터 항목 직렬화 실패", e);
+        }
+    }
+
+    private record DeadLetter(String payload, CouponIssueMessage message, String reason) {
     }
 }
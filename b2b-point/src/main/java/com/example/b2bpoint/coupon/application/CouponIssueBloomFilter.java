@@ -0,0 +1,89 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.google.common.hash.Hashing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 대규모 캠페인의 중복 발급 확인을 위한 Redis 비트맵 블룸 필터.
+ * 필터가 켜진 템플릿은 사용자 SET 에 아직 DB 로 동기화되지 않은 당첨자만 남기고,
+ * 동기화가 끝난 사용자는 이 필터에서 "발급되었을 수 있음"으로 판정된 경우에만 DB 에서 정확히 확인합니다.
+ * 비트맵 크기는 분할당 예상 당첨자 수와 목표 오탐률로 정해집니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponIssueBloomFilter {
+
+    private static final RedisScript<Long> BLOOM_ADD_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_bloom_add.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${coupon.issue.bloom.enabled:false}")
+    private boolean enabled;
+
+    @Value("${coupon.issue.bloom.min-quantity:1000000}")
+    private int minQuantity;
+
+    @Value("${coupon.issue.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    public boolean isEnabledFor(CouponTemplateCacheDto template) {
+        return enabled && template.getTotalQuantity() != null && template.getTotalQuantity() >= minQuantity;
+    }
+
+    /**
+     * 사용자를 필터에 추가하고, 추가 전에 이미 포함되어 있었을 가능성이 있었는지 반환합니다.
+     * false 는 "확실히 처음"이며, true 는 오탐일 수 있으므로 호출 측에서 정확히 확인해야 합니다.
+     */
+    public boolean mightContainAndAdd(String bloomKey, long expectedInsertions, String userId) {
+        long bits = bitSize(expectedInsertions, falsePositiveRate);
+        int hashes = hashCount(expectedInsertions, bits);
+
+        Long seen = redisTemplate.execute(BLOOM_ADD_SCRIPT, List.of(bloomKey), offsets(userId, bits, hashes));
+        return seen != null && seen == 1L;
+    }
+
+    // Redis 비트맵의 최대 크기(512MB)를 넘지 않도록 제한합니다.
+    private static final long MAX_BITS = 1L << 32;
+
+    static long bitSize(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        return Math.min(bits, MAX_BITS);
+    }
+
+    static int hashCount(long expectedInsertions, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    // Kirsch-Mitzenmacher 방식: 128비트 해시 하나에서 두 값을 꺼내 k개의 위치를 만듭니다.
+    static String[] offsets(String userId, long bits, int hashes) {
+        long[] hash = toLongs(Hashing.murmur3_128().hashString(userId, StandardCharsets.UTF_8).asBytes());
+        String[] offsets = new String[hashes];
+        long combined = hash[0];
+        for (int i = 0; i < hashes; i++) {
+            offsets[i] = String.valueOf(Math.floorMod(combined, bits));
+            combined += hash[1];
+        }
+        return offsets;
+    }
+
+    private static long[] toLongs(byte[] bytes) {
+        long first = 0;
+        long second = 0;
+        for (int i = 7; i >= 0; i--) {
+            first = (first << 8) | (bytes[i] & 0xFF);
+            second = (second << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new long[]{first, second};
+    }
+}
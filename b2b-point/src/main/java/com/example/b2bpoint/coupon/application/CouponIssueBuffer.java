@@ -0,0 +1,15 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.util.List;
+
+/**
+ * 큐에서 받은 발급 요청을 DB 에 반영되기 전까지 보관하는 Redis 버퍼.
+ * coupon.issue.buffer.type 으로 LIST(기본) 와 STREAM 중 하나가 등록됩니다.
+ */
+public interface CouponIssueBuffer {
+
+    void append(List<CouponIssueMessage> messages) throws JsonProcessingException;
+}
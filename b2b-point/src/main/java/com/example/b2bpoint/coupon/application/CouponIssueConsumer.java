@@ -1,41 +1,58 @@
 package com.example.b2bpoint.coupon.application;
 
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
 import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.consumer.mode", havingValue = "BUFFER", matchIfMissing = true)
+@RabbitListener(queues = "coupon.issue.queue")
 public class CouponIssueConsumer {
 
     private final CouponIssueSyncService couponIssueSyncService;
     private static final String QUEUE_NAME = "coupon.issue.queue";
-    private final ObjectMapper objectMapper;
-    private final StringRedisTemplate redisTemplate;
-    private static final String COUPON_ISSUE_REQUEST_LIST_KEY = "coupon:issue:requests";
+    private final CouponIssueBuffer couponIssueBuffer;
+    private final CouponIssueTicketStore couponIssueTicketStore;
 
 
-    @RabbitListener(queues = QUEUE_NAME)
+    @RabbitHandler
     public void receive(CouponIssueMessage message) {
         //log.info("Received message from RabbitMQ: {}", message);
         try{
-            String messageJson = objectMapper.writeValueAsString(message);
-            redisTemplate.opsForList().leftPush(COUPON_ISSUE_REQUEST_LIST_KEY, messageJson);
+            couponIssueBuffer.append(List.of(message));
 
             log.info("[{}] 쿠폰 발급 성공: userId: {}",message.getCouponTemplateId(), message.getUserId());
         }catch (Exception e){
             log.error("쿠폰 발급 실패 userId: {}. Error: {}", message.getUserId(), e.getMessage());
+            couponIssueTicketStore.markFailed(List.of(message));
             throw new AmqpRejectAndDontRequeueException("메시지 처리 실패. DLQ로 보냅니다.", e);
 
         }
 
 
     }
-}
\ No newline at end of file
+
+    // 프로듀서가 BATCH 모드일 때 묶여서 도착한 메시지를 한 번의 호출로 버퍼에 적재합니다.
+    @RabbitHandler
+    public void receiveBatch(CouponIssueBatchMessage batch) {
+        try {
+            couponIssueBuffer.append(batch.getMessages());
+
+            log.debug("쿠폰 발급 배치 적재 성공: size: {}", batch.getMessages().size());
+        } catch (Exception e) {
+            log.error("쿠폰 발급 배치 적재 실패 size: {}. Error: {}", batch.getMessages().size(), e.getMessage());
+            couponIssueTicketStore.markFailed(batch.getMessages());
+            throw new AmqpRejectAndDontRequeueException("메시지 처리 실패. DLQ로 보냅니다.", e);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueDlqReplayReport;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.google.common.util.concurrent.RateLimiter;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * coupon.issue.dlq 에 쌓인 발급 요청을 배치 단위로 꺼내 멱등 배치 저장으로 다시 반영합니다.
+ *
+ * <p>하나의 채널에서 basicGet(ack 없이)으로 batch-size 개를 모은 뒤 저장이 커밋되면 ack 하고,
+ * 일시적인 DB 오류로 저장에 실패하면 배치를 DLQ 로 되돌리고 중단합니다. 그 밖의 오류면 메시지별로 다시 저장해
+ * 성공한 메시지는 ack 하고, 실패한 메시지만 failed 로 세어 실행이 끝날 때까지 보류합니다.
+ * DB 보호를 위해 저장량은 rate-per-second 로 제한합니다.
+ * 변환할 수 없는 메시지는 실행이 끝날 때까지 보류했다가 DLQ 로 되돌려, 같은 실행에서 반복해서 꺼내지 않습니다.
+ * 이미 저장된 발급은 무시되므로 같은 메시지를 여러 번 재처리해도 중복 발급되지 않습니다.
+ * 이렇게 건너뛴 메시지도 ack 하지만 replayed 가 아닌 alreadyIssued 로 셉니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponIssueDlqReplayer {
+
+    private static final String DLQ_NAME = "coupon.issue.dlq";
+    // x-death 헤더 없이 컨슈머가 DLX 로 직접 보낸 메시지(변환 실패 등)
+    private static final String REPUBLISHED_REASON = "republished";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final CouponIssueSyncService couponIssueSyncService;
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "coupon-dlq-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress;
+
+    @Value("${coupon.issue.dlq-replay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${coupon.issue.dlq-replay.rate-per-second:2000}")
+    private double ratePerSecond;
+
+    /**
+     * 재처리를 백그라운드에서 시작합니다. 이미 실행 중이면 false 를 반환합니다.
+     *
+     * @param maxMessages 이번 실행에서 꺼낼 최대 메시지 수
+     */
+    public boolean start(long maxMessages) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Progress current = new Progress(maxMessages);
+        progress = current;
+        executor.execute(() -> {
+            try {
+                rabbitTemplate.execute(channel -> {
+                    replay(channel, current);
+                    return null;
+                });
+                current.finish(null);
+            } catch (Exception e) {
+                log.error("DLQ 재처리 실패", e);
+                current.finish(e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public CouponIssueDlqReplayReport report() {
+        Progress current = progress;
+        if (current == null) {
+            return CouponIssueDlqReplayReport.builder().status("IDLE").replayedByReason(Map.of()).build();
+        }
+        return current.toReport();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void replay(Channel channel, Progress progress) throws IOException {
+        RateLimiter rateLimiter = RateLimiter.create(ratePerSecond);
+        List<Long> parkedTags = new ArrayList<>();
+        try {
+            while (progress.remaining() > 0 && !Thread.currentThread().isInterrupted()) {
+                int size = (int) Math.min(batchSize, progress.remaining());
+                List<Long> deliveryTags = new ArrayList<>(size);
+                List<List<CouponIssueMessage>> messagesByDelivery = new ArrayList<>(size);
+                List<String> reasons = new ArrayList<>(size);
+                List<CouponIssueMessage> messages = new ArrayList<>(size);
+
+                int fetched = 0;
+                while (fetched < size) {
+                    GetResponse response = channel.basicGet(DLQ_NAME, false);
+                    if (response == null) {
+                        break;
+                    }
+                    fetched++;
+                    long deliveryTag = response.getEnvelope().getDeliveryTag();
+                    Message message = toMessage(response);
+                    try {
+                        List<CouponIssueMessage> converted = convert(message);
+                        messages.addAll(converted);
+                        messagesByDelivery.add(converted);
+                        deliveryTags.add(deliveryTag);
+                        reasons.add(reason(message.getMessageProperties()));
+                    } catch (Exception e) {
+                        log.warn("DLQ 메시지 변환 실패. 이번 실행에서는 건너뜁니다. Error: {}", e.getMessage());
+                        parkedTags.add(deliveryTag);
+                        progress.unconvertible(1);
+                    }
+                }
+
+                // 결과가 정해진 메시지 수. 일시적인 오류로 중단하면 이후 메시지는 DLQ 로 되돌립니다.
+                int settled = deliveryTags.size();
+                RuntimeException transientFailure = null;
+                Set<Integer> failedDeliveries = new HashSet<>();
+                Set<String> inserted = new HashSet<>();
+                if (!messages.isEmpty()) {
+                    rateLimiter.acquire(messages.size());
+                    try {
+                        insert(messages, inserted);
+                    } catch (RuntimeException e) {
+                        if (CouponIssueFailures.isTransient(e)) {
+                            transientFailure = e;
+                            settled = 0;
+                        } else {
+                            log.warn("DLQ 배치 저장 실패 size: {}. 메시지별로 다시 저장합니다. Error: {}", deliveryTags.size(), e.getMessage());
+                            for (int i = 0; i < messagesByDelivery.size(); i++) {
+                                try {
+                                    insert(messagesByDelivery.get(i), inserted);
+                                } catch (RuntimeException single) {
+                                    if (CouponIssueFailures.isTransient(single)) {
+                                        transientFailure = single;
+                                        settled = i;
+                                        break;
+                                    }
+                                    log.error("DLQ 메시지 저장 실패. 이번 실행에서는 건너뜁니다. Error: {}", single.getMessage());
+                                    failedDeliveries.add(i);
+                                    parkedTags.add(deliveryTags.get(i));
+                                }
+                            }
+                        }
+                    }
+                }
+
+                // 새로 저장된 요청이 있는 메시지만 재처리한 것으로 셉니다.
+                Map<String, Long> countByReason = new HashMap<>();
+                long replayed = 0;
+                long alreadyIssued = 0;
+                for (int i = 0; i < settled; i++) {
+                    if (failedDeliveries.contains(i)) {
+                        continue;
+                    }
+                    channel.basicAck(deliveryTags.get(i), false);
+                    if (messagesByDelivery.get(i).stream().anyMatch(message -> inserted.remove(requestKey(message)))) {
+                        countByReason.merge(reasons.get(i), 1L, Long::sum);
+                        replayed++;
+                    } else {
+                        alreadyIssued++;
+                    }
+                }
+                for (int i = settled; i < deliveryTags.size(); i++) {
+                    channel.basicNack(deliveryTags.get(i), false, true);
+                }
+                progress.failed(failedDeliveries.size() + deliveryTags.size() - settled);
+                progress.replayed(replayed, alreadyIssued, countByReason, fetched);
+
+                if (transientFailure != null) {
+                    throw transientFailure;
+                }
+                if (fetched < size) {
+                    break;
+                }
+            }
+        } finally {
+            for (Long deliveryTag : parkedTags) {
+                channel.basicNack(deliveryTag, false, true);
+            }
+        }
+    }
+
+    private void insert(List<CouponIssueMessage> messages, Set<String> inserted) {
+        couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages)
+                .forEach(issued -> inserted.add(requestKey(issued)));
+    }
+
+    private static String requestKey(CouponIssueMessage message) {
+        return message.getCouponTemplateId() + ":" + message.getUserId();
+    }
+
+    private Message toMessage(GetResponse response) {
+        MessageProperties properties = propertiesConverter.toMessageProperties(
+                response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+        return new Message(response.getBody(), properties);
+    }
+
+    private List<CouponIssueMessage> convert(Message message) {
+        Object payload = messageConverter.fromMessage(message);
+        if (payload instanceof CouponIssueBatchMessage batch) {
+            return batch.getMessages();
+        }
+        if (payload instanceof CouponIssueMessage issueMessage) {
+            return List.of(issueMessage);
+        }
+        throw new IllegalArgumentException("알 수 없는 메시지 타입: " + payload.getClass().getName());
+    }
+
+    // 가장 최근에 dead-letter 된 사유(rejected, expired, maxlen, delivery_limit)
+    private String reason(MessageProperties properties) {
+        List<Map<String, ?>> xDeath = properties.getXDeathHeader();
+        if (xDeath == null || xDeath.isEmpty() || xDeath.get(0).get("reason") == null) {
+            return REPUBLISHED_REASON;
+        }
+        return String.valueOf(xDeath.get(0).get("reason"));
+    }
+
+    static final class Progress {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<String, Long> replayedByReason = new HashMap<>();
+        private long remaining;
+        private long replayed;
+        private long alreadyIssued;
+        private long unconvertible;
+        private long failed;
+        private LocalDateTime finishedAt;
+        private String error;
+
+        Progress(long maxMessages) {
+            this.remaining = maxMessages;
+        }
+
+        synchronized long remaining() {
+            return remaining;
+        }
+
+        synchronized void replayed(long count, long alreadyIssuedCount, Map<String, Long> countByReason, int fetched) {
+            replayed += count;
+            alreadyIssued += alreadyIssuedCount;
+            remaining -= fetched;
+            countByReason.forEach((reason, reasonCount) -> replayedByReason.merge(reason, reasonCount, Long::sum));
+        }
+
+        synchronized void unconvertible(long count) {
+            unconvertible += count;
+        }
+
+        synchronized void failed(long count) {
+            failed += count;
+        }
+
+        synchronized void finish(Exception e) {
+            finishedAt = LocalDateTime.now();
+            error = e == null ? null : e.getMessage();
+        }
+
+        synchronized CouponIssueDlqReplayReport toReport() {
+            String status = finishedAt == null ? "RUNNING" : error == null ? "COMPLETED" : "FAILED";
+            return CouponIssueDlqReplayReport.builder()
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .replayed(replayed)
+                    .alreadyIssued(alreadyIssued)
+                    .unconvertible(unconvertible)
+                    .failed(failed)
+                    .replayedByReason(Map.copyOf(replayedByReason))
+                    .error(error)
+                    .build();
+        }
+    }
+}
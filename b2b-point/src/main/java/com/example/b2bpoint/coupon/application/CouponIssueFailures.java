@@ -0,0 +1,42 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.List;
+
+/**
+ * 발급 요청 저장 실패를 재시도할 오류와 요청 자체의 문제로 나눕니다.
+ * 일시적인 오류는 같은 요청을 다시 저장하면 성공할 수 있으므로 데드레터로 옮기지 않습니다.
+ */
+final class CouponIssueFailures {
+
+    // 데드락, 락 대기/커넥션 풀 대기 초과, 연결 끊김처럼 다시 시도하면 성공할 수 있는 오류
+    static final List<Class<? extends Throwable>> TRANSIENT_ERRORS = List.of(
+            TransientDataAccessException.class, RecoverableDataAccessException.class,
+            DataAccessResourceFailureException.class, CannotCreateTransactionException.class);
+
+    private CouponIssueFailures() {
+    }
+
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            Throwable current = cause;
+            if (TRANSIENT_ERRORS.stream().anyMatch(type -> type.isInstance(current))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 데드레터에 함께 기록할 실패 사유
+    static String reason(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+}
@@ -1,11 +1,37 @@
 package com.example.b2bpoint.coupon.application;
 
+import com.example.b2bpoint.common.exception.CustomException;
+import com.example.b2bpoint.common.exception.ErrorCode;
 import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 쿠폰 발급 메시지를 RabbitMQ 로 전송합니다.
+ *
+ * <p>SYNC 모드는 요청 스레드에서 바로 전송만 하고, CONFIRM 모드는 correlated publisher confirm 을 사용해
+ * 메시지마다 브로커 확인(ack/nack)을 기다리는 future 를 돌려줍니다. 브로커는 여러 메시지를 한 번에 확인(multiple ack)하며,
+ * 확인 결과 처리와 future 콜백은 AMQP I/O 스레드가 아닌 callback-threads 개의 별도 스레드에서 수행됩니다.
+ * 미확인 메시지 수는 max-in-flight 로 제한됩니다.
+ *
+ * <p>확인 시간 초과는 실패로 보지 않습니다. 늦은 ack 로 메시지가 전달될 수 있으므로 예약을 유지하고,
+ * 실제로 유실되었다면 Redis 카운터가 쿠폰 수보다 크게 남아 정합성 보정 작업의 차이 지표로 드러납니다.
+ * BATCH 모드는 CouponIssueBatchPublisher 를 통해 여러 메시지를 하나의 AMQP 메시지로 묶어 보냅니다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -14,9 +40,102 @@ public class CouponIssueProducer {
     private static final String EXCHANGE_NAME = "coupon.exchange";
     private static final String ROUTING_KEY = "coupon.issue.request";
     private final RabbitTemplate rabbitTemplate;
+    private final CouponIssueBatchPublisher couponIssueBatchPublisher;
+
+    @Value("${coupon.issue.producer.mode:SYNC}")
+    private Mode mode;
+
+    @Value("${coupon.issue.producer.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${coupon.issue.producer.in-flight-wait-ms:100}")
+    private long inFlightWaitMs;
+
+    @Value("${coupon.issue.producer.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${coupon.issue.producer.callback-threads:4}")
+    private int callbackThreads;
+
+    private Semaphore inFlight;
+    private ExecutorService confirmExecutor;
+
+    public enum Mode {
+        SYNC,
+        CONFIRM,
+        BATCH
+    }
+
+    @PostConstruct
+    void init() {
+        inFlight = new Semaphore(maxInFlight);
+        AtomicInteger threadIndex = new AtomicInteger();
+        confirmExecutor = Executors.newFixedThreadPool(callbackThreads, runnable -> {
+            Thread thread = new Thread(runnable, "coupon-issue-confirm-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (mode == Mode.BATCH) {
+            couponIssueBatchPublisher.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        confirmExecutor.shutdown();
+    }
+
+    public boolean isAsync() {
+        return mode != Mode.SYNC;
+    }
 
     public void send(CouponIssueMessage message) {
-        log.info("Sending message to RabbitMQ: {}", message);
+        log.debug("Sending message to RabbitMQ: {}", message);
         rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, message);
     }
-}
\ No newline at end of file
+
+    /**
+     * 브로커가 nack 한 경우에만 예외로 완료되고, ack 이거나 confirm-timeout 안에 확인되지 않으면 정상 완료됩니다.
+     * 미확인 메시지가 max-in-flight 에 도달해 in-flight-wait 동안 자리가 나지 않으면 즉시 예외를 던집니다.
+     */
+    public CompletableFuture<Void> sendAsync(CouponIssueMessage message) {
+        if (mode == Mode.BATCH) {
+            return couponIssueBatchPublisher.send(message);
+        }
+
+        acquireInFlight();
+
+        CorrelationData correlationData = new CorrelationData();
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, message, correlationData);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+
+        return correlationData.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                .handleAsync((confirm, throwable) -> {
+                    inFlight.release();
+                    if (throwable != null) {
+                        log.warn("Publisher confirm 대기 시간 초과. 예약을 유지합니다. ticketId: {}", message.getTicketId());
+                        return null;
+                    }
+                    if (!confirm.isAck()) {
+                        throw new AmqpException("브로커가 메시지를 거부했습니다: " + confirm.getReason());
+                    }
+                    return null;
+                }, confirmExecutor);
+    }
+
+    private void acquireInFlight() {
+        try {
+            if (!inFlight.tryAcquire(inFlightWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new CustomException(ErrorCode.MESSAGING_SYSTEM_ERROR);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(ErrorCode.MESSAGING_SYSTEM_ERROR);
+        }
+    }
+}
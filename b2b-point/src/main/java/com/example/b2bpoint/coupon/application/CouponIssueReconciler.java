@@ -0,0 +1,221 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 발급 기간 중이거나 최근에 끝난 템플릿에 대해 세 값을 주기적으로 비교합니다.
+ * 비교 대상은 실제 저장된 쿠폰 수(coupons), coupon_templates.issued_quantity, Redis 발급 카운터입니다.
+ *
+ * <p>쿠폰 수는 (coupon_template_id, user_id) 유니크 인덱스의 범위 카운트로 구하므로,
+ * 비용은 coupons 테이블 전체가 아니라 활성 템플릿의 발급량에만 비례합니다.
+ * 쿠폰 수와 발급 수량은 한 문장에서 같은 스냅샷으로 읽습니다.
+ * 병렬 저장처럼 잠시 어긋나는 경우를 피하려고, 두 번 연속 같은 차이가 보일 때만 보정합니다.
+ * (병렬 저장 중에 보정하면 뒤이은 수량 증가가 한 번 더 더해집니다.)
+ * 실행마다 락을 얻는 노드가 다를 수 있으므로 직전 실행의 차이는 락 옆의 Redis 해시에 남겨 다음 실행이 이어받습니다.
+ *
+ * <p>템플릿별 차이는 로그로만 남기고, 지표는 템플릿 수에 따라 늘어나지 않도록 합계만 내보냅니다.
+ *
+ * <p>Redis 카운터에는 노드가 임차한 재고와 DB 반영 전 요청이 포함되므로 쿠폰 수보다 큰 것은 정상일 수 있습니다.
+ * 그래서 카운터가 쿠폰 수보다 작은 경우(초과 발급 위험)만 보정합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.reconcile.enabled", havingValue = "true")
+public class CouponIssueReconciler {
+
+    public enum Policy {
+        REPORT,   // 차이를 지표로만 기록
+        COLUMN,   // issued_quantity 를 쿠폰 수로 보정
+        ALL       // issued_quantity 보정 + Redis 카운터를 쿠폰 수까지 올림
+    }
+
+    private static final String LOCK_KEY = "lock:coupon:reconcile";
+    // 직전 실행에서 관측한 차이 (templateId -> 차이). 같은 차이가 연속으로 보일 때만 보정합니다.
+    static final String COLUMN_DRIFT_KEY = LOCK_KEY + ":drift:column";
+    static final String REDIS_DRIFT_KEY = LOCK_KEY + ":drift:redis";
+
+    private static final String ACTIVE_TEMPLATE_COUNTS_SQL =
+            "SELECT ct.id, ct.issued_quantity, " +
+            "(SELECT COUNT(*) FROM coupons c WHERE c.coupon_template_id = ct.id) AS coupon_count " +
+            "FROM coupon_templates ct " +
+            "WHERE ct.valid_until >= ? AND ct.id > ? " +
+            "ORDER BY ct.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CouponTemplateRepository couponTemplateRepository;
+    private final CouponStockManager couponStockManager;
+    private final CouponTemplateLoader couponTemplateLoader;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${coupon.reconcile.policy:REPORT}")
+    private Policy policy;
+
+    @Value("${coupon.reconcile.page-size:500}")
+    private int pageSize;
+
+    // 발급 기간이 끝난 뒤에도 이 시간 동안은 늦게 반영되는 요청을 위해 계속 비교합니다.
+    @Value("${coupon.reconcile.active-grace-hours:24}")
+    private long activeGraceHours;
+
+    @Value("${coupon.reconcile.interval-ms:300000}")
+    private long intervalMs;
+
+    private final AtomicLong columnDrift = new AtomicLong();
+    private final AtomicLong columnDriftTemplates = new AtomicLong();
+    private final AtomicLong redisDrift = new AtomicLong();
+    private final AtomicLong redisDriftTemplates = new AtomicLong();
+    private Counter columnCorrections;
+    private Counter redisCorrections;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("coupon.reconcile.drift", columnDrift, AtomicLong::get)
+                .tag("store", "column")
+                .description("|issued_quantity - 실제 쿠폰 수| 의 템플릿 합계")
+                .register(meterRegistry);
+        Gauge.builder("coupon.reconcile.drift", redisDrift, AtomicLong::get)
+                .tag("store", "redis")
+                .description("Redis 발급 카운터가 실제 쿠폰 수보다 부족한 양의 템플릿 합계")
+                .register(meterRegistry);
+        Gauge.builder("coupon.reconcile.drift.templates", columnDriftTemplates, AtomicLong::get)
+                .tag("store", "column")
+                .description("issued_quantity 가 실제 쿠폰 수와 다른 템플릿 수")
+                .register(meterRegistry);
+        Gauge.builder("coupon.reconcile.drift.templates", redisDriftTemplates, AtomicLong::get)
+                .tag("store", "redis")
+                .description("Redis 발급 카운터가 실제 쿠폰 수보다 작은 템플릿 수")
+                .register(meterRegistry);
+        columnCorrections = Counter.builder("coupon.reconcile.corrected")
+                .tag("store", "column")
+                .register(meterRegistry);
+        redisCorrections = Counter.builder("coupon.reconcile.corrected")
+                .tag("store", "redis")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.reconcile.interval-ms:300000}",
+            initialDelayString = "${coupon.reconcile.interval-ms:300000}")
+    public void reconcile() {
+        // 여러 노드 중 한 곳에서만 실행합니다. 락은 주기보다 약간 짧게 잡아 다음 실행을 막지 않습니다.
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, "locked", Duration.ofMillis(Math.max(1000, intervalMs - 1000)));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+
+        try {
+            reconcileActiveTemplates();
+        } catch (Exception e) {
+            log.error("쿠폰 발급 수량 정합성 확인 실패", e);
+        }
+    }
+
+    void reconcileActiveTemplates() {
+        Timestamp activeSince = Timestamp.valueOf(LocalDateTime.now().minusHours(activeGraceHours));
+        Map<Long, Long> previousColumnDrift = loadDrift(COLUMN_DRIFT_KEY);
+        Map<Long, Long> previousRedisDrift = loadDrift(REDIS_DRIFT_KEY);
+        Map<Long, Long> columnDrifts = new HashMap<>();
+        Map<Long, Long> redisDrifts = new HashMap<>();
+
+        long lastId = 0;
+        List<TemplateCount> page;
+        do {
+            page = jdbcTemplate.query(ACTIVE_TEMPLATE_COUNTS_SQL,
+                    (rs, rowNum) -> new TemplateCount(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                    activeSince, lastId, pageSize);
+
+            for (TemplateCount count : page) {
+                long columnDiff = count.issuedQuantity() - count.couponCount();
+                long redisDiff = couponStockManager.reservedCount(couponTemplateLoader.load(count.templateId()))
+                        - count.couponCount();
+
+                if (columnDiff != 0) {
+                    columnDrifts.put(count.templateId(), columnDiff);
+                    correctColumn(count, columnDiff, previousColumnDrift.get(count.templateId()));
+                }
+                if (redisDiff < 0) {
+                    redisDrifts.put(count.templateId(), redisDiff);
+                    correctRedis(count, redisDiff, previousRedisDrift.containsKey(count.templateId()));
+                }
+                lastId = count.templateId();
+            }
+        } while (page.size() == pageSize);
+
+        columnDrift.set(columnDrifts.values().stream().mapToLong(Math::abs).sum());
+        columnDriftTemplates.set(columnDrifts.size());
+        redisDrift.set(redisDrifts.values().stream().mapToLong(Math::abs).sum());
+        redisDriftTemplates.set(redisDrifts.size());
+        saveDrift(COLUMN_DRIFT_KEY, columnDrifts);
+        saveDrift(REDIS_DRIFT_KEY, redisDrifts);
+    }
+
+    private Map<Long, Long> loadDrift(String key) {
+        Map<Long, Long> drifts = new HashMap<>();
+        redisTemplate.opsForHash().entries(key).forEach((templateId, diff) ->
+                drifts.put(Long.valueOf(templateId.toString()), Long.valueOf(diff.toString())));
+        return drifts;
+    }
+
+    // 다음 실행이 이어받을 수 있도록 이번 차이로 교체합니다. 실행이 끊기면 오래된 차이를 연속으로 보지 않도록 만료시킵니다.
+    private void saveDrift(String key, Map<Long, Long> drifts) {
+        redisTemplate.delete(key);
+        if (drifts.isEmpty()) {
+            return;
+        }
+        Map<String, String> entries = new HashMap<>();
+        drifts.forEach((templateId, diff) -> entries.put(String.valueOf(templateId), String.valueOf(diff)));
+        redisTemplate.opsForHash().putAll(key, entries);
+        redisTemplate.expire(key, Duration.ofMillis(Math.max(1000, intervalMs * 2)));
+    }
+
+    private void correctColumn(TemplateCount count, long diff, Long previousDiff) {
+        log.warn("issued_quantity 불일치. templateId: {}, issuedQuantity: {}, coupons: {}",
+                count.templateId(), count.issuedQuantity(), count.couponCount());
+        if (policy == Policy.REPORT || previousDiff == null || previousDiff != diff) {
+            return;
+        }
+
+        couponTemplateRepository.reconcileIssuedQuantity(count.templateId());
+        columnCorrections.increment();
+        log.warn("issued_quantity 를 실제 쿠폰 수로 보정했습니다. templateId: {}", count.templateId());
+    }
+
+    private void correctRedis(TemplateCount count, long diff, boolean previouslyShort) {
+        log.warn("Redis 발급 카운터가 실제 쿠폰 수보다 작습니다. templateId: {}, diff: {}", count.templateId(), diff);
+        // 발급이 진행 중이면 차이 값이 계속 바뀌므로 연속으로 부족했는지만 확인합니다.
+        if (policy != Policy.ALL || !previouslyShort) {
+            return;
+        }
+
+        long raised = couponStockManager.raiseReservedCount(couponTemplateLoader.load(count.templateId()), count.couponCount());
+        if (raised > 0) {
+            redisCorrections.increment();
+            log.warn("Redis 발급 카운터를 {} 만큼 올렸습니다. templateId: {}", raised, count.templateId());
+        }
+    }
+
+    record TemplateCount(long templateId, long issuedQuantity, long couponCount) {
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스트림 버퍼를 컨슈머 그룹으로 처리합니다.
+ * 각 워커 스레드는 XREADGROUP 으로 최대 batch-size 개를 읽어 DB 에 저장하고, 커밋된 뒤에만 XACK/XDEL 합니다.
+ * 죽은 워커가 ack 하지 못한 항목은 claim-idle-ms 이후 다른 워커가 XCLAIM 으로 가져가 재처리하며,
+ * max-deliveries 를 넘긴 항목과 역직렬화할 수 없는 항목은 데드레터 스트림으로 옮겨집니다.
+ * 배치 저장이 일시적이지 않은 오류로 실패하면 항목을 하나씩 다시 저장해 실패한 항목만 pending 으로 남기므로,
+ * 한 항목 때문에 같은 배치의 다른 항목이 데드레터로 옮겨지지 않습니다.
+ * 데드레터 스트림의 항목은 {@link #replayDeadLetters(long)} 로 원래 스트림에 다시 넣을 수 있습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.buffer.type", havingValue = "STREAM")
+public class CouponIssueStreamWorker {
+
+    static final String GROUP_NAME = "coupon-issue-sync";
+    private static final String STREAM_KEY = RedisStreamCouponIssueBuffer.STREAM_KEY;
+    private static final String DEAD_LETTER_STREAM_KEY = STREAM_KEY + ":dead";
+    private static final String MESSAGE_FIELD = RedisStreamCouponIssueBuffer.MESSAGE_FIELD;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CouponIssueSyncService couponIssueSyncService;
+    private final ObjectMapper objectMapper;
+    private final CouponIssueTicketStore couponIssueTicketStore;
+
+    private final String consumerPrefix = UUID.randomUUID().toString();
+
+    @Value("${coupon.issue.stream.workers:2}")
+    private int workerCount;
+
+    @Value("${coupon.issue.stream.batch-size:500}")
+    private int batchSize;
+
+    @Value("${coupon.issue.stream.block-ms:1000}")
+    private long blockMs;
+
+    @Value("${coupon.issue.stream.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    @Value("${coupon.issue.stream.max-deliveries:5}")
+    private long maxDeliveries;
+
+    private ExecutorService workers;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    void start() {
+        createGroupIfAbsent();
+
+        AtomicInteger sequence = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "coupon-issue-stream-worker-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            Consumer consumer = Consumer.from(GROUP_NAME, consumerPrefix + "-" + i);
+            workers.submit(() -> poll(consumer));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(blockMs * 2, TimeUnit.MILLISECONDS);
+    }
+
+    private void createGroupIfAbsent() {
+        try {
+            redisTemplate.execute(connection -> connection.streamCommands().xGroupCreate(
+                    STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP_NAME, ReadOffset.from("0"), true), true);
+        } catch (RedisSystemException e) {
+            // 이미 그룹이 있는 경우(BUSYGROUP)는 정상입니다.
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private void poll(Consumer consumer) {
+        while (running) {
+            try {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer,
+                        StreamReadOptions.empty().count(batchSize).block(Duration.ofMillis(blockMs)),
+                        StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+                if (records != null && !records.isEmpty()) {
+                    process(records);
+                }
+            } catch (Exception e) {
+                // ack 되지 않은 항목은 pending 으로 남아 reclaim 에서 재처리됩니다.
+                log.error("쿠폰 발급 스트림 처리 실패. consumer: {}", consumer.getName(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    // 다른 워커(또는 종료된 인스턴스)가 오래 ack 하지 못한 항목을 가져와 재처리합니다.
+    @Scheduled(fixedDelayString = "${coupon.issue.stream.claim-interval-ms:30000}")
+    public void reclaimIdleEntries() {
+        PendingMessages pending = redisTemplate.opsForStream()
+                .pending(STREAM_KEY, GROUP_NAME, Range.unbounded(), batchSize);
+
+        List<RecordId> claimable = new ArrayList<>();
+        List<RecordId> exhausted = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().toMillis() < claimIdleMs) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                exhausted.add(message.getId());
+            } else {
+                claimable.add(message.getId());
+            }
+        }
+
+        String claimer = consumerPrefix + "-reclaim";
+        if (!exhausted.isEmpty()) {
+            deadLetter(redisTemplate.opsForStream().claim(STREAM_KEY, GROUP_NAME, claimer,
+                    Duration.ofMillis(claimIdleMs), exhausted.toArray(RecordId[]::new)));
+        }
+        if (!claimable.isEmpty()) {
+            List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(STREAM_KEY, GROUP_NAME,
+                    claimer, Duration.ofMillis(claimIdleMs), claimable.toArray(RecordId[]::new));
+            if (!claimed.isEmpty()) {
+                log.warn("ack 되지 않은 쿠폰 발급 스트림 항목을 재처리합니다. size: {}", claimed.size());
+                process(claimed);
+            }
+        }
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        try {
+            store(records);
+        } catch (RuntimeException e) {
+            if (records.size() == 1 || CouponIssueFailures.isTransient(e)) {
+                throw e;
+            }
+            log.warn("쿠폰 발급 스트림 배치 저장 실패. 항목별로 다시 저장합니다. size: {}", records.size(), e);
+            processOneByOne(records);
+        }
+    }
+
+    // 저장에 실패한 항목만 ack 하지 않고 남겨, 재전달 횟수도 그 항목만 늘어나게 합니다.
+    private void processOneByOne(List<MapRecord<String, Object, Object>> records) {
+        for (MapRecord<String, Object, Object> record : records) {
+            try {
+                store(List.of(record));
+            } catch (RuntimeException e) {
+                if (CouponIssueFailures.isTransient(e)) {
+                    throw e;
+                }
+                log.error("쿠폰 발급 스트림 항목 저장 실패. 재전달 한도까지 pending 으로 남깁니다. id: {}, reason: {}",
+                        record.getId(), CouponIssueFailures.reason(e));
+            }
+        }
+    }
+
+    // 역직렬화할 수 없는 항목은 다시 읽어도 실패하므로 저장한 항목과 함께 ack 하기 전에 데드레터 스트림으로 옮깁니다.
+    private void store(List<MapRecord<String, Object, Object>> records) {
+        List<MapRecord<String, Object, Object>> unparsable = new ArrayList<>();
+        List<CouponIssueMessage> messages = deserialize(records, unparsable);
+        if (!messages.isEmpty()) {
+            couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+        }
+        if (!unparsable.isEmpty()) {
+            log.error("역직렬화할 수 없는 쿠폰 발급 스트림 항목을 데드레터로 옮깁니다. size: {}", unparsable.size());
+            addToDeadLetterStream(unparsable);
+        }
+        acknowledge(records.stream().map(MapRecord::getId).toArray(RecordId[]::new));
+    }
+
+    /**
+     * 데드레터 스트림의 항목을 오래된 순으로 최대 maxRecords 개 원래 스트림에 다시 넣습니다.
+     * 다시 넣은 항목은 새 항목이므로 전달 횟수가 처음부터 다시 세어지며, 이미 저장된 발급은 무시됩니다.
+     *
+     * @return 다시 넣은 항목 수
+     */
+    public long replayDeadLetters(long maxRecords) {
+        long replayed = 0;
+        while (replayed < maxRecords) {
+            int count = (int) Math.min(batchSize, maxRecords - replayed);
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                    .range(DEAD_LETTER_STREAM_KEY, Range.unbounded(), Limit.limit().count(count));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                redisTemplate.opsForStream().add(STREAM_KEY, Map.of(MESSAGE_FIELD, record.getValue().get(MESSAGE_FIELD)));
+                redisTemplate.opsForStream().delete(DEAD_LETTER_STREAM_KEY, record.getId());
+            }
+            replayed += records.size();
+            if (records.size() < count) {
+                break;
+            }
+        }
+        log.info("데드레터 스트림 항목 {}건을 다시 넣었습니다.", replayed);
+        return replayed;
+    }
+
+    public long deadLetterCount() {
+        Long size = redisTemplate.opsForStream().size(DEAD_LETTER_STREAM_KEY);
+        return size == null ? 0 : size;
+    }
+
+    private void deadLetter(List<MapRecord<String, Object, Object>> records) {
+        addToDeadLetterStream(records);
+        if (!records.isEmpty()) {
+            log.error("재처리 한도를 넘은 쿠폰 발급 스트림 항목을 데드레터로 옮깁니다. size: {}", records.size());
+            acknowledge(records.stream().map(MapRecord::getId).toArray(RecordId[]::new));
+            couponIssueTicketStore.markFailed(deserialize(records, new ArrayList<>()));
+        }
+    }
+
+    private void addToDeadLetterStream(List<MapRecord<String, Object, Object>> records) {
+        for (MapRecord<String, Object, Object> record : records) {
+            redisTemplate.opsForStream().add(DEAD_LETTER_STREAM_KEY,
+                    Map.of(MESSAGE_FIELD, String.valueOf(record.getValue().get(MESSAGE_FIELD))));
+        }
+    }
+
+    private List<CouponIssueMessage> deserialize(List<MapRecord<String, Object, Object>> records,
+                                                 List<MapRecord<String, Object, Object>> unparsable) {
+        List<CouponIssueMessage> messages = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object json = record.getValue().get(MESSAGE_FIELD);
+            try {
+                if (json == null) {
+                    throw new IllegalArgumentException(MESSAGE_FIELD + " 필드 없음");
+                }
+                messages.add(objectMapper.readValue((String) json, CouponIssueMessage.class));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.error("메시지 역직렬화 실패: {}", record.getValue(), e);
+                unparsable.add(record);
+            }
+        }
+        return messages;
+    }
+
+    private void acknowledge(RecordId[] ids) {
+        redisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP_NAME, ids);
+        redisTemplate.opsForStream().delete(STREAM_KEY, ids);
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(blockMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.b2bpoint.coupon.application;
 
+import com.example.b2bpoint.common.domain.SnowflakeIdGenerator;
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
 import com.example.b2bpoint.coupon.domain.Coupon;
@@ -8,22 +9,46 @@ import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
 import com.example.b2bpoint.coupon.repository.CouponRepository;
 import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
 import com.google.common.collect.Lists;
+import com.mysql.cj.jdbc.JdbcStatement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static jakarta.persistence.GenerationType.UUID;
 import static java.util.stream.Collectors.toList;
 
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CouponIssueSyncService {
@@ -31,6 +56,95 @@ public class CouponIssueSyncService {
     private final CouponTemplateRepository couponTemplateRepository;
     private final CouponRepository couponRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final CouponIssueTicketStore couponIssueTicketStore;
+    private final CouponStockManager couponStockManager;
+    private final CouponTemplateLoader couponTemplateLoader;
+    private final TransactionTemplate transactionTemplate;
+    private final CouponCodeGenerator couponCodeGenerator;
+
+    private static final int INSERT_CHUNK_SIZE = 10000;
+
+    // 10개 컬럼 x 1000행으로 prepared statement 자리표시자 한도(65535) 안에 머뭅니다.
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    // 1 이면 배치 전체를 하나의 트랜잭션으로 저장합니다. 커넥션 풀 크기보다 작게 설정해야 합니다.
+    @Value("${coupon.issue.sync.parallelism:1}")
+    private int parallelism;
+
+    @Value("${coupon.issue.sync.parallel-threshold:10000}")
+    private int parallelThreshold;
+
+    // 장애 복구 등으로 적체된 대량 배치는 LOAD DATA LOCAL INFILE 로 적재합니다. 서버/드라이버가 허용하지 않으면 배치 INSERT 로 대체합니다.
+    @Value("${coupon.issue.sync.bulk-load.enabled:false}")
+    private boolean bulkLoadEnabled;
+
+    @Value("${coupon.issue.sync.bulk-load.threshold:50000}")
+    private int bulkLoadThreshold;
+
+    /*
+     * LOAD DATA LOCAL 은 IGNORE 를 지정하지 않아도 오류를 경고로 바꿔 건너뛰므로 쿠폰 테이블에 바로 적재하지 않고,
+     * 커넥션 전용 임시 테이블에 적재한 뒤 INSERT ... SELECT 로 옮겨 (템플릿, 사용자) 중복만 허용합니다.
+     * 임시 테이블에서 빠진 행은 옮긴 뒤의 저장 결과 확인에서 드러납니다.
+     */
+    private static final String STAGING_TABLE = "coupons_load";
+    private static final String CREATE_STAGING_SQL = "CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE + " LIKE coupons";
+    private static final String CLEAR_STAGING_SQL = "DELETE FROM " + STAGING_TABLE;
+    private static final String DROP_STAGING_SQL = "DROP TEMPORARY TABLE IF EXISTS " + STAGING_TABLE;
+    private static final String LOAD_DATA_SQL = "LOAD DATA LOCAL INFILE 'coupons.tsv' INTO TABLE " + STAGING_TABLE + " " +
+            "CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " +
+            "(" + CouponTsvInputStream.COLUMNS + ")";
+    private static final String INSERT_FROM_STAGING_SQL = "INSERT INTO coupons (" + CouponTsvInputStream.COLUMNS + ") " +
+            "SELECT " + CouponTsvInputStream.COLUMNS + " FROM " + STAGING_TABLE + " ON DUPLICATE KEY UPDATE id = coupons.id";
+
+    // 저장 결과 확인용 잠금 읽기. 다른 트랜잭션이 방금 커밋한 중복 행도 보이도록 스냅샷 대신 최신 행을 읽습니다.
+    private static final String PERSISTED_COUPONS_SQL = "SELECT id, user_id, code FROM coupons " +
+            "WHERE coupon_template_id = ? AND user_id IN (%s) FOR SHARE";
+
+    // 1148 ER_NOT_ALLOWED_COMMAND, 2068 CR_LOAD_DATA_LOCAL_INFILE_REJECTED, 3948/3950 서버/클라이언트의 local infile 비활성화
+    private static final Set<Integer> LOCAL_INFILE_REJECTED_ERROR_CODES = Set.of(1148, 2068, 3948, 3950);
+
+    private final AtomicBoolean bulkLoadAvailable = new AtomicBoolean(true);
+
+    // 병렬 저장은 재시도 때 이미 커밋된 파티션을 (템플릿, 사용자) 유니크 키로 걸러내야 안전합니다.
+    private static final String TEMPLATE_USER_UNIQUE_KEY_SQL = "SELECT COUNT(*) FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = 'coupons' " +
+            "AND index_name = 'uk_coupons_template_user' AND non_unique = 0";
+
+    private ExecutorService insertWorkers;
+
+    @PostConstruct
+    void init() {
+        if (parallelism <= 1) {
+            return;
+        }
+        if (!hasTemplateUserUniqueKey()) {
+            log.warn("coupons 에 (coupon_template_id, user_id) 유니크 키가 없어 병렬 저장을 사용하지 않습니다. parallelism: {}", parallelism);
+            return;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        insertWorkers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "coupon-issue-insert-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private boolean hasTemplateUserUniqueKey() {
+        try {
+            Integer columns = jdbcTemplate.queryForObject(TEMPLATE_USER_UNIQUE_KEY_SQL, Integer.class);
+            return columns != null && columns > 0;
+        } catch (DataAccessException e) {
+            log.warn("coupons 유니크 키 확인 실패", e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (insertWorkers != null) {
+            insertWorkers.shutdown();
+        }
+    }
 
     @Transactional
     public void issueCoupon(Long partnerId, Long couponTemplateId, String userId) {
@@ -45,6 +159,7 @@ public class CouponIssueSyncService {
                 .partnerId(partnerId)
                 .userId(userId)
                 .couponTemplate(template)
+                .code(couponCodeGenerator.generate())
                 .build();
 
         Coupon savedCoupon = couponRepository.save(coupon);
@@ -68,81 +183,362 @@ public class CouponIssueSyncService {
     @Transactional
     public void issueCouponWithoutLock(Long partnerId, Long couponTemplateId, String userId,LocalDateTime validUntil) {
 
-        Coupon coupon=Coupon.createFromMessage(partnerId, userId, couponTemplateId, validUntil);
+        Coupon coupon=Coupon.createFromMessage(partnerId, userId, couponTemplateId, validUntil, couponCodeGenerator.generate());
 
         Coupon savedCoupon = couponRepository.save(coupon);
     }
 
-    @Transactional
-    public void issueCouponsAndUpdateQuantityInBatch(List<CouponIssueMessage> messages){
-        //issueCouponsInBatch(messages);
-        issueCouponsInBatchByJdbc(messages);
+    /**
+     * 발급 요청을 저장하고 템플릿별 발급 수량을 늘립니다. 이미 저장되어 있던 (템플릿, 사용자) 요청은 건너뜁니다.
+     *
+     * @return 이번 호출에서 새로 저장된 요청 (같은 (템플릿, 사용자) 요청은 처음 것 하나만 포함)
+     */
+    public List<CouponIssueMessage> issueCouponsAndUpdateQuantityInBatch(List<CouponIssueMessage> messages){
+        InsertResult inserted;
+        if (insertWorkers != null && messages.size() > parallelThreshold && !shouldBulkLoad(messages.size())) {
+            inserted = issueCouponsInParallel(messages);
+        } else {
+            inserted = transactionTemplate.execute(status -> {
+                //issueCouponsInBatch(messages);
+                InsertResult result = issueCouponsInBatchByJdbc(messages);
+
+                increaseIssuedQuantities(result.countByTemplateId);
+                runAfterCompletion(messages, result.codeByRequest);
+                return result;
+            });
+        }
+        return messages.stream()
+                .filter(message -> inserted.insertedRequests.remove(requestKey(message.getCouponTemplateId(), message.getUserId())))
+                .toList();
+    }
+
+    /**
+     * 사용자 해시로 나눈 파티션을 워커 풀에서 각자의 커넥션/트랜잭션으로 저장한 뒤,
+     * 템플릿별 발급 수량은 마지막에 한 번만 갱신합니다(같은 템플릿 행에 대한 락 경합 방지).
+     * 일부 파티션이 실패해도 커밋된 파티션의 수량은 반영하고 예외를 던집니다.
+     * 재시도 시 이미 저장된 쿠폰은 무시되므로 실패한 파티션만 새로 저장되고, 수량도 그만큼만 늘어납니다.
+     */
+    private InsertResult issueCouponsInParallel(List<CouponIssueMessage> messages) {
+        List<List<CouponIssueMessage>> partitions = partitionByUser(distinctByTemplateAndUser(messages));
+        List<CompletableFuture<InsertResult>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(
+                        () -> transactionTemplate.execute(status -> insertCoupons(toCoupons(partition))), insertWorkers))
+                .toList();
+
+        InsertResult inserted = new InsertResult();
+        List<CouponIssueMessage> committed = new ArrayList<>(messages.size());
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                inserted.merge(futures.get(i).join());
+                committed.addAll(partitions.get(i));
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure == null) {
+            transactionTemplate.executeWithoutResult(status -> {
+                increaseIssuedQuantities(inserted.countByTemplateId);
+                runAfterCompletion(messages, inserted.codeByRequest);
+            });
+            return inserted;
+        }
 
-        Map<Long, Long> issueCountByTemplateId = messages.stream()
-                .collect(Collectors.groupingBy(
-                        CouponIssueMessage::getCouponTemplateId,
-                        Collectors.counting()
-                ));
+        // 실패한 파티션은 재시도 대상이므로 티켓을 PENDING 으로 둡니다.
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                increaseIssuedQuantities(inserted.countByTemplateId);
+                runAfterCompletion(committed, inserted.codeByRequest);
+            });
+        } catch (RuntimeException e) {
+            // 저장된 쿠폰은 재시도 때 무시되므로 여기서 반영하지 못한 수량은 누락됩니다.
+            log.error("병렬 저장 부분 실패 후 발급 수량 갱신 실패. counts: {}", inserted.countByTemplateId, e);
+            failure.addSuppressed(e);
+        }
+        throw failure;
+    }
+
+    private List<List<CouponIssueMessage>> partitionByUser(List<CouponIssueMessage> messages) {
+        Map<Integer, List<CouponIssueMessage>> messagesByPartition = messages.stream()
+                .collect(Collectors.groupingBy(message -> Math.floorMod(message.getUserId().hashCode(), parallelism)));
+
+        List<List<CouponIssueMessage>> chunks = new ArrayList<>();
+        messagesByPartition.values().forEach(partition -> chunks.addAll(Lists.partition(partition, INSERT_CHUNK_SIZE)));
+        return chunks;
+    }
+
+    // 재전달 등으로 같은 배치에 들어온 (템플릿, 사용자) 중복 요청은 한 번만 저장합니다.
+    private List<CouponIssueMessage> distinctByTemplateAndUser(List<CouponIssueMessage> messages) {
+        Set<String> seen = new HashSet<>(messages.size() * 2);
+        List<CouponIssueMessage> distinct = messages.stream()
+                .filter(message -> seen.add(requestKey(message.getCouponTemplateId(), message.getUserId())))
+                .toList();
+
+        if (distinct.size() < messages.size()) {
+            log.info("배치 내 중복 발급 요청 {}건을 제외했습니다.", messages.size() - distinct.size());
+        }
+        return distinct;
+    }
 
+    // 중복으로 무시된 행을 제외하고 실제로 저장된 건수만큼만 발급 수량을 늘립니다.
+    private void increaseIssuedQuantities(Map<Long, Integer> insertedCountByTemplateId) {
+        insertedCountByTemplateId.forEach((templateId, count) -> {
+            if (count > 0) {
+                couponTemplateRepository.increaseIssuedQuantity(templateId, count);
+            }
+        });
+    }
+
+    /**
+     * 커밋된 뒤에 발급 티켓 상태를 기록하고, 동기화된 사용자를 Redis 에서 정리합니다.
+     * 롤백된 요청은 스케줄러, DLQ 재처리, 스트림 reclaim 등으로 다시 저장되므로 티켓을 PENDING 으로 둡니다.
+     * FAILED 는 요청이 데드레터로 옮겨지거나 버려지는 시점에만 기록합니다.
+     */
+    private void runAfterCompletion(List<CouponIssueMessage> messages, Map<String, String> codeByRequest) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(messages, codeByRequest);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                CouponIssueSyncService.this.afterCommit(messages, codeByRequest);
+            }
+        });
+    }
+
+    // 재전달 등으로 이미 저장되어 있던 요청은 처음 저장된 쿠폰의 코드로 티켓을 기록합니다.
+    private void afterCommit(List<CouponIssueMessage> messages, Map<String, String> codeByRequest) {
+        List<CouponIssueMessage> issued = messages.stream()
+                .map(message -> {
+                    String code = codeByRequest.get(requestKey(message.getCouponTemplateId(), message.getUserId()));
+                    return code == null || code.equals(message.getCode()) ? message : message.withCode(code);
+                })
+                .toList();
+        couponIssueTicketStore.markIssued(issued);
+        forgetSyncedUsers(messages);
+    }
 
-        issueCountByTemplateId.forEach((templateId, count) -> {
-            couponTemplateRepository.increaseIssuedQuantity(templateId, count.intValue());
+    // 실패하더라도 사용자 SET 에 항목이 남을 뿐 중복 확인은 정확합니다.
+    private void forgetSyncedUsers(List<CouponIssueMessage> messages) {
+        Map<Long, List<String>> userIdsByTemplateId = messages.stream()
+                .collect(Collectors.groupingBy(CouponIssueMessage::getCouponTemplateId,
+                        Collectors.mapping(CouponIssueMessage::getUserId, Collectors.toList())));
+
+        userIdsByTemplateId.forEach((templateId, userIds) -> {
+            try {
+                couponStockManager.forgetSyncedUsers(couponTemplateLoader.load(templateId), userIds);
+            } catch (Exception e) {
+                log.warn("동기화된 사용자 정리 실패. templateId: {}", templateId, e);
+            }
         });
     }
 
     private void issueCouponsInBatch(List<CouponIssueMessage> messages) {
 
-        List<Coupon> couponsToSave = messages.stream()
+        List<Coupon> couponsToSave = toCoupons(messages);
+
+        if (!couponsToSave.isEmpty()) {
+            couponRepository.saveAll(couponsToSave);
+        }
+    }
+
+    // 템플릿 ID 별로 실제로 저장된 쿠폰 수와 요청별로 저장되어 있는 쿠폰 코드를 반환합니다.
+    private InsertResult issueCouponsInBatchByJdbc(List<CouponIssueMessage> messages) {
+        List<Coupon> coupons = toCoupons(distinctByTemplateAndUser(messages));
+        if (!shouldBulkLoad(coupons.size())) {
+            return insertCoupons(coupons);
+        }
+
+        // 템플릿별로 적재해야 건수를 템플릿에 정확히 귀속시킬 수 있습니다.
+        InsertResult inserted = new InsertResult();
+        groupByTemplate(coupons).forEach((templateId, group) -> {
+            List<Long> ids = nextIds(group.size());
+            if (bulkLoadAvailable.get() && stage(group, ids)) {
+                inserted.merge(moveStagedCoupons(templateId, group, ids));
+            } else {
+                inserted.merge(insertCoupons(group));
+            }
+        });
+        return inserted;
+    }
+
+    private boolean shouldBulkLoad(int size) {
+        return bulkLoadEnabled && bulkLoadAvailable.get() && size >= bulkLoadThreshold;
+    }
+
+    /**
+     * 현재 트랜잭션의 커넥션 전용 임시 테이블에 LOAD DATA 로 적재합니다.
+     * 실패한 LOAD DATA 문은 문 단위로 롤백되므로 false 를 반환하면 같은 트랜잭션에서 배치 INSERT 로 이어갈 수 있습니다.
+     */
+    private boolean stage(List<Coupon> coupons, List<Long> ids) {
+        try {
+            Long loaded = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_SQL);
+                    statement.execute(CLEAR_STAGING_SQL);
+                    statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new CouponTsvInputStream(coupons, ids));
+                    return statement.executeLargeUpdate(LOAD_DATA_SQL);
+                }
+            });
+            log.info("LOAD DATA 로 쿠폰 {}건을 임시 테이블에 적재했습니다. (요청 {}건)", loaded, coupons.size());
+            return true;
+        } catch (DataAccessException e) {
+            if (isLocalInfileRejected(e)) {
+                bulkLoadAvailable.set(false);
+            }
+            log.warn("LOAD DATA LOCAL INFILE 적재 실패. 배치 INSERT 로 대체합니다.", e);
+            return false;
+        }
+    }
+
+    // 임시 테이블의 행을 쿠폰 테이블로 옮깁니다. 외래 키, 코드 중복 같은 오류는 그대로 던져 배치를 롤백합니다.
+    private InsertResult moveStagedCoupons(Long templateId, List<Coupon> coupons, List<Long> ids) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeLargeUpdate(INSERT_FROM_STAGING_SQL);
+                statement.execute(DROP_STAGING_SQL);
+            }
+            return null;
+        });
+
+        InsertResult inserted = new InsertResult();
+        for (int from = 0; from < coupons.size(); from += ROWS_PER_STATEMENT) {
+            int to = Math.min(from + ROWS_PER_STATEMENT, coupons.size());
+            inserted.merge(verifyPersisted(templateId, coupons.subList(from, to), ids.subList(from, to)));
+        }
+        return inserted;
+    }
+
+    private boolean isLocalInfileRejected(DataAccessException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sqlException
+                && LOCAL_INFILE_REJECTED_ERROR_CODES.contains(sqlException.getErrorCode())) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains("Loading local data is disabled");
+    }
+
+    private List<Coupon> toCoupons(List<CouponIssueMessage> messages) {
+        return messages.stream()
                 .map(message -> Coupon.createFromMessage(
                         message.getPartnerId(),
                         message.getUserId(),
                         message.getCouponTemplateId(),
-                        message.getValidUntil()
+                        message.getValidUntil(),
+                        message.getCode() != null ? message.getCode() : couponCodeGenerator.generate()
                 ))
                 .toList();
-
-        if (!couponsToSave.isEmpty()) {
-            couponRepository.saveAll(couponsToSave);
-        }
     }
 
-    private void issueCouponsInBatchByJdbc(List<CouponIssueMessage> messages) {
+    private InsertResult insertCoupons(List<Coupon> couponsToSave) {
+        InsertResult inserted = new InsertResult();
+        groupByTemplate(couponsToSave).forEach((templateId, group) -> {
+            for (List<Coupon> rows : Lists.partition(group, ROWS_PER_STATEMENT)) {
+                List<Long> ids = nextIds(rows.size());
+                insertSkippingDuplicates(rows, ids);
+                inserted.merge(verifyPersisted(templateId, rows, ids));
+            }
+        });
+        return inserted;
+    }
 
+    /**
+     * 여러 행을 하나의 INSERT 문으로 저장합니다. 이미 있는 (템플릿, 사용자) 행은 그대로 두고,
+     * 그 밖의 오류(외래 키, 값 길이 등)는 IGNORE 와 달리 경고로 바뀌지 않고 예외로 던져집니다.
+     */
+    private void insertSkippingDuplicates(List<Coupon> rows, List<Long> ids) {
+        String sql = "INSERT INTO coupons (" + CouponTsvInputStream.COLUMNS + ") VALUES " +
+                String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) +
+                " ON DUPLICATE KEY UPDATE id = id";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (int i = 0; i < rows.size(); i++) {
+                Coupon coupon = rows.get(i);
+                ps.setLong(index++, ids.get(i));
+                ps.setLong(index++, coupon.getPartnerId());
+                ps.setString(index++, coupon.getUserId());
+                ps.setLong(index++, coupon.getCouponTemplateId());
+                ps.setString(index++, coupon.getStatus().toString()); // CouponStatus.AVAILABLE
+                ps.setTimestamp(index++, Timestamp.valueOf(coupon.getIssuedAt()));
+                ps.setTimestamp(index++, Timestamp.valueOf(coupon.getExpiredAt()));
+                ps.setString(index++, coupon.getCode());
+                ps.setTimestamp(index++, now);
+                ps.setTimestamp(index++, now);
+            }
+        });
+    }
 
-        String sql = "INSERT INTO coupons " +
-                "(partner_id, user_id, coupon_template_id, status, issued_at, expired_at, code, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * 요청한 (템플릿, 사용자) 행이 모두 저장되어 있는지 확인하고, 이번에 새로 저장된 행 수와 저장된 쿠폰 코드를 반환합니다.
+     * 이번에 발급한 ID 를 가진 행만 새로 저장된 것으로 셉니다. 중복 키 UPDATE 의 영향 행 수는 드라이버 설정(useAffectedRows)에
+     * 따라 달라지므로 사용하지 않습니다. 코드 충돌처럼 (템플릿, 사용자)가 아닌 키 때문에 건너뛴 행이 있으면 예외를 던집니다.
+     */
+    private InsertResult verifyPersisted(Long templateId, List<Coupon> rows, List<Long> ids) {
+        String sql = String.format(PERSISTED_COUPONS_SQL, String.join(", ", Collections.nCopies(rows.size(), "?")));
+        Set<Long> issuedIds = new HashSet<>(ids);
+        InsertResult inserted = new InsertResult();
+        AtomicInteger insertedCount = new AtomicInteger();
+
+        jdbcTemplate.query(sql, ps -> {
+            ps.setLong(1, templateId);
+            for (int i = 0; i < rows.size(); i++) {
+                ps.setString(i + 2, rows.get(i).getUserId());
+            }
+        }, (RowCallbackHandler) rs -> {
+            String requestKey = requestKey(templateId, rs.getString("user_id"));
+            if (issuedIds.contains(rs.getLong("id"))) {
+                insertedCount.incrementAndGet();
+                inserted.insertedRequests.add(requestKey);
+            }
+            inserted.codeByRequest.put(requestKey, rs.getString("code"));
+        });
 
-        int batchSize = 10000;
+        if (inserted.codeByRequest.size() < rows.size()) {
+            throw new IllegalStateException(String.format("저장되지 않은 쿠폰 발급 요청이 있습니다. templateId: %d, 요청: %d, 저장: %d",
+                    templateId, rows.size(), inserted.codeByRequest.size()));
+        }
+        inserted.countByTemplateId.put(templateId, insertedCount.get());
+        return inserted;
+    }
 
+    // JPA 로 저장되는 행과 같은 ID 체계를 사용합니다.
+    private List<Long> nextIds(int size) {
+        SnowflakeIdGenerator idGenerator = SnowflakeIdGenerator.getInstance();
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(idGenerator.nextId());
+        }
+        return ids;
+    }
 
-        List<List<CouponIssueMessage>> partitionedMessages = Lists.partition(messages, batchSize);
+    private static String requestKey(Long templateId, String userId) {
+        return templateId + ":" + userId;
+    }
 
-        for (List<CouponIssueMessage> chunk : partitionedMessages) {
+    private Map<Long, List<Coupon>> groupByTemplate(List<Coupon> coupons) {
+        return coupons.stream().collect(Collectors.groupingBy(Coupon::getCouponTemplateId));
+    }
 
-            List<Coupon> couponsToSave = chunk.stream()
-                    .map(message -> Coupon.createFromMessage(
-                            message.getPartnerId(),
-                            message.getUserId(),
-                            message.getCouponTemplateId(),
-                            message.getValidUntil()
-                    ))
-                    .toList();
+    // 템플릿별로 새로 저장된 쿠폰 수, 새로 저장된 요청과 "템플릿ID:사용자ID" 별로 저장되어 있는 쿠폰 코드
+    private static final class InsertResult {
+        private final Map<Long, Integer> countByTemplateId = new HashMap<>();
+        private final Set<String> insertedRequests = new HashSet<>();
+        private final Map<String, String> codeByRequest = new HashMap<>();
 
-            jdbcTemplate.batchUpdate(sql,
-                    couponsToSave,
-                    chunk.size(), // 현재 청크의 실제 크기
-                    (PreparedStatement ps, Coupon coupon) -> {
-                        ps.setLong(1, coupon.getPartnerId());
-                        ps.setString(2, coupon.getUserId());
-                        ps.setLong(3, coupon.getCouponTemplateId());
-                        ps.setString(4, coupon.getStatus().toString()); // CouponStatus.AVAILABLE
-                        ps.setTimestamp(5, Timestamp.valueOf(coupon.getIssuedAt()));
-                        ps.setTimestamp(6, Timestamp.valueOf(coupon.getExpiredAt()));
-                        ps.setString(7, coupon.getCode());
-                        ps.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-                        ps.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
-                    });
+        void merge(InsertResult other) {
+            other.countByTemplateId.forEach((templateId, count) -> countByTemplateId.merge(templateId, count, Integer::sum));
+            insertedRequests.addAll(other.insertedRequests);
+            codeByRequest.putAll(other.codeByRequest);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponIssueTicketStatus;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueTicketResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 비동기 발급 티켓의 처리 결과를 Redis 해시에 보관합니다.
+ * 발급 경로에는 쓰기를 추가하지 않기 위해, 결과가 기록되지 않은 티켓은 PENDING 으로 간주합니다.
+ * 키에 파트너 ID 를 포함해 다른 파트너의 티켓은 조회되지 않습니다.
+ * FAILED 는 최종 상태로, 요청이 데드레터로 옮겨지거나 브로커가 거부해 더 이상 재시도되지 않을 때만 기록합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponIssueTicketStore {
+
+    private static final String TICKET_KEY = "coupon:issue:ticket:%d:%s";
+    private static final String STATUS_FIELD = "status";
+    private static final String CODE_FIELD = "code";
+    private static final Duration TICKET_TTL = Duration.ofDays(1);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public CouponIssueTicketResponse find(Long partnerId, String ticketId) {
+        Map<Object, Object> ticket = redisTemplate.opsForHash().entries(String.format(TICKET_KEY, partnerId, ticketId));
+
+        CouponIssueTicketStatus status = ticket.isEmpty()
+                ? CouponIssueTicketStatus.PENDING
+                : CouponIssueTicketStatus.valueOf((String) ticket.get(STATUS_FIELD));
+
+        return CouponIssueTicketResponse.builder()
+                .ticketId(ticketId)
+                .status(status)
+                .couponCode(status == CouponIssueTicketStatus.ISSUED ? (String) ticket.get(CODE_FIELD) : null)
+                .build();
+    }
+
+    public void markIssued(List<CouponIssueMessage> messages) {
+        mark(messages, CouponIssueTicketStatus.ISSUED);
+    }
+
+    public void markFailed(List<CouponIssueMessage> messages) {
+        mark(messages, CouponIssueTicketStatus.FAILED);
+    }
+
+    private void mark(List<CouponIssueMessage> messages, CouponIssueTicketStatus status) {
+        List<CouponIssueMessage> ticketed = messages.stream()
+                .filter(message -> message.getTicketId() != null)
+                .toList();
+        if (ticketed.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (CouponIssueMessage message : ticketed) {
+                    String key = String.format(TICKET_KEY, message.getPartnerId(), message.getTicketId());
+                    stringConnection.hMSet(key, fields(message, status));
+                    stringConnection.expire(key, TICKET_TTL.getSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("발급 티켓 상태 기록 실패. status: {}, count: {}", status, ticketed.size(), e);
+        }
+    }
+
+    private Map<String, String> fields(CouponIssueMessage message, CouponIssueTicketStatus status) {
+        if (status == CouponIssueTicketStatus.ISSUED) {
+            return Map.of(STATUS_FIELD, status.name(), CODE_FIELD, Objects.requireNonNullElse(message.getCode(), ""));
+        }
+        return Map.of(STATUS_FIELD, status.name());
+    }
+}
@@ -5,41 +5,104 @@ import com.example.b2bpoint.common.exception.ErrorCode;
 import com.example.b2bpoint.coupon.domain.CouponTemplate;
 import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
 import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
-
+/**
+ * 쿠폰 템플릿을 2단계 캐시(노드 로컬 L1 + Redis L2)로 조회합니다.
+ * L1 에는 역직렬화된 DTO 가 보관되며, 템플릿이 생성/수정되면 Redis Pub/Sub 으로 모든 노드의 L1 을 무효화합니다.
+ * 무효화 메시지가 유실되더라도 L1 항목은 expire-after-write 이후에 다시 L2 에서 읽힙니다.
+ * L2 값의 형식은 {@link CouponTemplateCodec} 으로 교체할 수 있으며, 쓰기는 설정된 형식으로 하고 읽기는 저장된 값의 형식을 판별합니다.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class CouponReader {
+public class CouponReader implements MessageListener {
 
     private final StringRedisTemplate redisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
     private final CouponTemplateRepository couponTemplateRepository;
-    private final ObjectMapper objectMapper;
+    private final List<CouponTemplateCodec> codecs;
+    private final RedisMessageListenerContainer listenerContainer;
 
     private static final String COUPON_TEMPLATE_KEY = "coupon:template:%d";
+    private static final String INVALIDATE_CHANNEL = "coupon:template:invalidate";
+
+    @Value("${coupon.template.local-cache.maximum-size:10000}")
+    private long localCacheMaximumSize;
+
+    @Value("${coupon.template.local-cache.expire-after-write-seconds:60}")
+    private long localCacheExpireSeconds;
+
+    @Value("${coupon.template.cache-format:JSON}")
+    private String cacheFormat;
+
+    private Cache<Long, CouponTemplateCacheDto> localCache;
+    private CouponTemplateCodec writeCodec;
+
+    @PostConstruct
+    void init() {
+        writeCodec = codecs.stream()
+                .filter(codec -> codec.format().equalsIgnoreCase(cacheFormat))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("지원하지 않는 쿠폰 템플릿 캐시 형식: " + cacheFormat));
+        localCache = CacheBuilder.newBuilder()
+                .maximumSize(localCacheMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(localCacheExpireSeconds))
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
 
     public CouponTemplateCacheDto findTemplateFromCache(Long templateId) {
+        CouponTemplateCacheDto cached = localCache.getIfPresent(templateId);
+        if (cached != null) {
+            return cached;
+        }
+
         String cacheKey = String.format(COUPON_TEMPLATE_KEY, templateId);
 
-        String templateJson = redisTemplate.opsForValue().get(cacheKey);
-        if (templateJson != null) {
+        byte[] value = binaryRedisTemplate.opsForValue().get(cacheKey);
+        if (value != null) {
             try {
-                return objectMapper.readValue(templateJson, CouponTemplateCacheDto.class);
-            } catch (JsonProcessingException e) {
-
+                CouponTemplateCacheDto dto = decode(value);
+                localCache.put(templateId, dto);
+                return dto;
+            } catch (RuntimeException e) {
+                log.warn("쿠폰 템플릿 캐시 역직렬화 실패. templateId: {}", templateId, e);
                 return null;
             }
         }
         return null;
     }
 
+    private CouponTemplateCacheDto decode(byte[] value) {
+        for (CouponTemplateCodec codec : codecs) {
+            if (codec.supports(value)) {
+                return codec.decode(value);
+            }
+        }
+        throw new IllegalStateException("알 수 없는 쿠폰 템플릿 캐시 형식");
+    }
+
     @Transactional(readOnly = true)
     public CouponTemplateCacheDto findTemplateFromDbAndCache(Long templateId) {
         String cacheKey = String.format(COUPON_TEMPLATE_KEY, templateId);
@@ -47,14 +110,66 @@ public class CouponReader {
         CouponTemplate templateFromDb = couponTemplateRepository.findById(templateId)
                 .orElseThrow(() -> new CustomException(ErrorCode.COUPON_TEMPLATE_NOT_FOUND));
 
+        CouponTemplateCacheDto dto = CouponTemplateCacheDto.fromEntity(templateFromDb);
+        binaryRedisTemplate.opsForValue().set(cacheKey, writeCodec.encode(dto), Duration.ofDays(1));
+        localCache.put(templateId, dto);
+        return dto;
+    }
+
+    // 템플릿이 생성/수정되었을 때 L2 를 갱신하고 모든 노드의 L1 을 무효화합니다.
+    // 트랜잭션 안에서 호출되면 커밋 이후에 반영하므로, 롤백된 값이 캐시나 다른 노드에 퍼지지 않습니다.
+    public void cacheTemplate(CouponTemplate template) {
+        CouponTemplateCacheDto cacheDto = CouponTemplateCacheDto.fromEntity(template);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeAndInvalidate(cacheDto);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeAndInvalidate(cacheDto);
+            }
+        });
+    }
+
+    private void writeAndInvalidate(CouponTemplateCacheDto cacheDto) {
+        String cacheKey = String.format(COUPON_TEMPLATE_KEY, cacheDto.getId());
+
         try {
-            CouponTemplateCacheDto dto = CouponTemplateCacheDto.fromEntity(templateFromDb);
-            String newTemplateJson = objectMapper.writeValueAsString(dto);
+            byte[] value = writeCodec.encode(cacheDto);
+
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime validFrom = cacheDto.getValidFrom();
+            Duration ttl;
+
+            if (validFrom.isBefore(now)) {
+                ttl = Duration.ofDays(1);
+            } else {
+                Duration durationUntilValid = Duration.between(now, validFrom);
+                ttl = durationUntilValid.plusDays(1);
+            }
+            binaryRedisTemplate.opsForValue().set(cacheKey, value, ttl);
+        } catch (IllegalStateException e) {
+            log.error("쿠폰 템플릿 직렬화 실패. Template ID: {}", cacheDto.getId(), e);
+
+            redisTemplate.delete(cacheKey);
+        }
+
+        invalidate(cacheDto.getId());
+    }
 
-            redisTemplate.opsForValue().set(cacheKey, newTemplateJson, Duration.ofDays(1));
-            return dto;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("DTO 직렬화 실패", e);
+    public void invalidate(Long templateId) {
+        localCache.invalidate(templateId);
+        try {
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(templateId));
+        } catch (Exception e) {
+            log.warn("쿠폰 템플릿 캐시 무효화 이벤트 발행 실패. templateId: {}", templateId, e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        localCache.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.b2bpoint.coupon.application;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 수량이 소진된 쿠폰 템플릿을 노드 메모리에 기록해 두고, 이후 요청을 I/O 없이 거절합니다.
+ * 소진/해제 이벤트는 Redis Pub/Sub 으로 다른 노드에 전파됩니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponSoldOutRegistry implements MessageListener {
+
+    private static final String SOLD_OUT_CHANNEL = "coupon:template:sold-out";
+    private static final String SOLD_OUT = "SOLD_OUT";
+    private static final String CLEAR = "CLEAR";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Set<Long> soldOutTemplateIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(SOLD_OUT_CHANNEL));
+    }
+
+    public boolean isSoldOut(Long templateId) {
+        return soldOutTemplateIds.contains(templateId);
+    }
+
+    public void markSoldOut(Long templateId) {
+        if (soldOutTemplateIds.add(templateId)) {
+            publish(SOLD_OUT, templateId);
+        }
+    }
+
+    // 수량 증가 트랜잭션 안에서 호출되면 커밋 이후에 해제합니다. 롤백되면 소진 상태가 그대로 유지됩니다.
+    public void clear(Long templateId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clearNow(templateId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clearNow(templateId);
+            }
+        });
+    }
+
+    private void clearNow(Long templateId) {
+        soldOutTemplateIds.remove(templateId);
+        publish(CLEAR, templateId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] event = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        if (event.length != 2) {
+            log.warn("잘못된 소진 이벤트 형식: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+            return;
+        }
+
+        Long templateId = Long.parseLong(event[1]);
+        if (SOLD_OUT.equals(event[0])) {
+            soldOutTemplateIds.add(templateId);
+        } else if (CLEAR.equals(event[0])) {
+            soldOutTemplateIds.remove(templateId);
+        }
+    }
+
+    private void publish(String type, Long templateId) {
+        try {
+            redisTemplate.convertAndSend(SOLD_OUT_CHANNEL, type + ":" + templateId);
+        } catch (Exception e) {
+            // 전파 실패 시 다른 노드는 Redis 스크립트 결과로 스스로 소진을 감지합니다.
+            log.warn("쿠폰 소진 이벤트 발행 실패. templateId: {}", templateId, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.b2bpoint.coupon.application;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 노드가 중앙 카운터에서 미리 임차한 재고. 발급 시에는 CAS 로만 차감합니다.
+// 임차분 대부분은 Redis 에 기록(recorded)해 두고 소량만 메모리로 꺼내 쓰므로, 노드가 비정상 종료되어도
+// 기록된 재고는 다른 노드가 회수합니다.
+class CouponStockLease {
+
+    private final AtomicLong remaining = new AtomicLong();
+    // Redis 에 기록된 수량의 이 노드 측 사본. 갱신은 리스 모니터 안에서만 합니다.
+    private volatile long recorded;
+    private final LocalDateTime validUntil;
+    private final int stripes;
+
+    CouponStockLease(LocalDateTime validUntil, int stripes) {
+        this.validUntil = validUntil;
+        this.stripes = stripes;
+    }
+
+    boolean tryTake() {
+        long current;
+        do {
+            current = remaining.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!remaining.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    void add(long quantity) {
+        remaining.addAndGet(quantity);
+    }
+
+    long drain() {
+        return remaining.getAndSet(0);
+    }
+
+    boolean hasStock() {
+        return remaining.get() > 0 || recorded > 0;
+    }
+
+    long getRecorded() {
+        return recorded;
+    }
+
+    void setRecorded(long recorded) {
+        this.recorded = recorded;
+    }
+
+    int getStripes() {
+        return stripes;
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return validUntil != null && now.isAfter(validUntil);
+    }
+}
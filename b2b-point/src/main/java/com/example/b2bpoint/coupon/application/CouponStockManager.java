@@ -0,0 +1,609 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponIssueResult;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.example.b2bpoint.coupon.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * 선착순 발급의 중복 확인 / 재고 확인 / 예약을 Redis 스크립트 한 번으로 처리합니다.
+ * 스크립트는 EVALSHA 로 실행되며, 서버에 캐시되지 않은 경우에만 본문이 전송됩니다.
+ * 한 스크립트가 다루는 키는 {templateId} 해시 태그를 공유하므로 Redis Cluster 에서도 같은 슬롯에 놓입니다.
+ *
+ * <p>stockStripes 가 2 이상인 핫 템플릿은 사용자 SET 과 카운터를 N개로 나눕니다.
+ * 각 분할 키는 {templateId:stripe} 해시 태그를 공유하므로 분할마다 다른 클러스터 슬롯에 배치되고,
+ * 사용자 해시로 정해진 분할에서 한 번의 스크립트로 예약합니다. 해당 분할의 할당량이 소진되면
+ * 인접 분할의 카운터에서 재고를 가져옵니다.
+ *
+ * <p>coupon.issue.stock-lease.enabled 가 켜져 있으면 각 노드가 중앙 카운터에서 block-size 단위로 재고를
+ * 임차해 두고 메모리에서 차감합니다. 중복 확인은 여전히 Redis SET 에서 수행되며, 남은 임차분은
+ * 종료 시점이나 발급 기간이 끝난 뒤 중앙 카운터로 반납됩니다.
+ * 임차분은 local-size 만큼만 메모리로 꺼내고 나머지는 coupon:stock:lease:{nodeId} 에 기록해 둡니다.
+ * 하트비트가 끊긴 노드의 기록은 다른 노드가 회수해 중앙 카운터로 돌려주므로, 비정상 종료 시 잃는 재고는
+ * 노드 메모리에 있던 최대 local-size 개로 제한됩니다.
+ *
+ * <p>수량이 큰 템플릿에 블룸 필터가 켜져 있으면 사용자 SET 은 DB 동기화 전의 당첨자만 보관합니다.
+ * 동기화가 끝난 사용자는 {@link #forgetSyncedUsers} 로 SET 에서 제거되며, 이후 요청은 블룸 필터가
+ * "발급되었을 수 있음"으로 판정한 경우에만 DB 에서 확인합니다.
+ *
+ * <p>해시 태그를 쓰기 전의 키(coupon:template:%d:count / :users)는 시작 시 {@link #migrateLegacyKeys} 로 옮깁니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponStockManager {
+
+    private static final String COUPON_COUNT_KEY = "coupon:template:{%d}:count";
+    private static final String COUPON_USERS_KEY = "coupon:template:{%d}:users";
+    private static final String COUPON_STRIPE_COUNT_KEY = "coupon:template:{%d:%d}:count";
+    private static final String COUPON_STRIPE_USERS_KEY = "coupon:template:{%d:%d}:users";
+    private static final long UNLIMITED = -1L;
+    private static final String LEASE_KEY_PREFIX = "coupon:stock:lease:";
+    // 해시 태그를 쓰기 전의 카운터 / 사용자 SET 키 (coupon:template:%d:count, coupon:template:%d:users)
+    private static final Pattern LEGACY_KEY = Pattern.compile("coupon:template:(\\d+):(count|users)");
+    private static final int LEGACY_MIGRATION_CHUNK = 1000;
+
+    private static final RedisScript<Long> ISSUE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_issue.lua"), Long.class);
+    private static final RedisScript<Long> ROLLBACK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_issue_rollback.lua"), Long.class);
+    private static final RedisScript<Long> ACQUIRE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_stock_acquire.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_stock_release.lua"), Long.class);
+    private static final RedisScript<Long> RAISE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_counter_raise.lua"), Long.class);
+    private static final RedisScript<Long> LEASE_TAKE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_stock_lease_take.lua"), Long.class);
+    private static final RedisScript<List> LEASE_RECOVER_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_stock_lease_recover.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CouponSoldOutRegistry couponSoldOutRegistry;
+    private final CouponIssueBloomFilter couponIssueBloomFilter;
+    private final CouponRepository couponRepository;
+
+    private final Map<Long, CouponStockLease> leases = new ConcurrentHashMap<>();
+    // 노드마다 다른 분할부터 임차하도록 시작 위치를 분산시킵니다.
+    private final int leaseStripeOffset = ThreadLocalRandom.current().nextInt(1024);
+    // 노드와 하트비트 키가 같은 슬롯에 놓이도록 노드 ID 를 해시 태그로 씁니다.
+    private final String leaseKey = LEASE_KEY_PREFIX + "{" + UUID.randomUUID() + "}";
+    private final String leaseHeartbeatKey = leaseKey + ":heartbeat";
+
+    @Value("${coupon.issue.stock-lease.enabled:false}")
+    private boolean leaseEnabled;
+
+    @Value("${coupon.issue.stock-lease.block-size:200}")
+    private int leaseBlockSize;
+
+    // Redis 기록 없이 메모리에서 바로 차감하는 수량. 노드가 비정상 종료되면 최대 이만큼 덜 발급됩니다.
+    @Value("${coupon.issue.stock-lease.local-size:20}")
+    private int leaseLocalSize;
+
+    // 이 시간 동안 하트비트가 갱신되지 않은 노드의 임차 기록은 다른 노드가 회수합니다.
+    @Value("${coupon.issue.stock-lease.heartbeat-ttl-ms:30000}")
+    private long leaseHeartbeatTtlMs;
+
+    @Value("${coupon.issue.legacy-key-migration.enabled:true}")
+    private boolean legacyKeyMigrationEnabled;
+
+    /**
+     * 해시 태그가 없던 이전 형식의 카운터와 사용자 SET 을 현재 키로 옮깁니다.
+     * 요청을 받기 전에 옮겨야 진행 중인 캠페인이 빈 카운터로 다시 시작해 초과/중복 발급되지 않습니다.
+     * 배포 중 이전 버전 노드가 이전 키에 계속 기록할 수 있으므로 카운터는 더하고 사용자 SET 은 합집합으로 옮기며,
+     * 옮길 키가 없으면 아무 일도 하지 않으므로 노드가 시작할 때마다 실행합니다.
+     */
+    @PostConstruct
+    public void migrateLegacyKeys() {
+        if (!legacyKeyMigrationEnabled) {
+            return;
+        }
+
+        List<String> legacyKeys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match("coupon:template:[0-9]*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(key -> {
+                if (LEGACY_KEY.matcher(key).matches()) {
+                    legacyKeys.add(key);
+                }
+            });
+        }
+
+        for (String legacyKey : legacyKeys) {
+            Matcher matcher = LEGACY_KEY.matcher(legacyKey);
+            matcher.matches();
+            Long templateId = Long.parseLong(matcher.group(1));
+            if ("count".equals(matcher.group(2))) {
+                migrateLegacyCounter(legacyKey, String.format(COUPON_COUNT_KEY, templateId));
+            } else {
+                migrateLegacyUsers(legacyKey, String.format(COUPON_USERS_KEY, templateId));
+            }
+            log.info("이전 형식의 쿠폰 재고 키를 옮겼습니다. {} -> templateId: {}", legacyKey, templateId);
+        }
+    }
+
+    // 새 카운터에 먼저 더한 뒤 이전 카운터에서 빼므로, 중간에 실패해도 적게 세지 않고 많이 세는 쪽으로 남습니다.
+    private void migrateLegacyCounter(String legacyKey, String countKey) {
+        String value = redisTemplate.opsForValue().get(legacyKey);
+        if (value == null) {
+            return;
+        }
+        long count = Long.parseLong(value);
+        redisTemplate.opsForValue().increment(countKey, count);
+        Long remaining = redisTemplate.opsForValue().decrement(legacyKey, count);
+        if (remaining != null && remaining == 0) {
+            redisTemplate.delete(legacyKey);
+        }
+    }
+
+    // 새 SET 에 먼저 넣은 뒤 이전 SET 에서 지우므로, 중간에 실패해도 사용자가 빠지지 않습니다.
+    private void migrateLegacyUsers(String legacyKey, String usersKey) {
+        while (true) {
+            Set<String> userIds = redisTemplate.opsForSet().distinctRandomMembers(legacyKey, LEGACY_MIGRATION_CHUNK);
+            if (userIds == null || userIds.isEmpty()) {
+                return;
+            }
+            redisTemplate.opsForSet().add(usersKey, userIds.toArray(String[]::new));
+            redisTemplate.opsForSet().remove(legacyKey, userIds.toArray());
+        }
+    }
+
+    public CouponIssueResult reserve(CouponTemplateCacheDto template, String userId) {
+        boolean possiblyIssued = couponIssueBloomFilter.isEnabledFor(template)
+                && couponIssueBloomFilter.mightContainAndAdd(bloomKey(template, userId), bloomCapacity(template), userId);
+
+        CouponIssueResult result = reserveStock(template, userId);
+
+        // 예약 이후에 확인해야 확인과 예약 사이에 동기화(SREM)가 끝난 발급도 놓치지 않습니다.
+        if (possiblyIssued && result.isSuccess()
+                && couponRepository.existsByCouponTemplateIdAndUserId(template.getId(), userId)) {
+            release(template, userId);
+            return CouponIssueResult.ALREADY_ISSUED;
+        }
+        return result;
+    }
+
+    private CouponIssueResult reserveStock(CouponTemplateCacheDto template, String userId) {
+        if (leaseEnabled && template.getTotalQuantity() != null) {
+            return reserveLeased(template, userId);
+        }
+
+        int stripes = template.stripeCount();
+        if (stripes > 1) {
+            return reserveStriped(template, userId, stripes);
+        }
+
+        Integer totalQuantity = template.getTotalQuantity();
+        long limit = totalQuantity == null ? UNLIMITED : totalQuantity;
+
+        Long code = redisTemplate.execute(ISSUE_SCRIPT, keys(template.getId()), userId, String.valueOf(limit));
+        return CouponIssueResult.of(code);
+    }
+
+    // 재고를 카운터로 돌려줬다면 임차분 반납과 마찬가지로 소진 기록을 해제합니다.
+    public void release(CouponTemplateCacheDto template, String userId) {
+        if (leaseEnabled && template.getTotalQuantity() != null) {
+            releaseLeased(template, userId);
+            return;
+        }
+
+        int stripes = template.stripeCount();
+        boolean returned;
+        if (stripes > 1) {
+            returned = releaseStriped(template, userId, stripes);
+        } else {
+            Long released = redisTemplate.execute(ROLLBACK_SCRIPT, keys(template.getId()), userId);
+            returned = released != null && released > 0;
+        }
+        if (returned) {
+            couponSoldOutRegistry.clear(template.getId());
+        }
+    }
+
+    // DB 에 반영된 사용자를 사용자 SET 에서 제거합니다. 블룸 필터가 켜진 템플릿에만 적용됩니다.
+    public void forgetSyncedUsers(CouponTemplateCacheDto template, Collection<String> userIds) {
+        if (!couponIssueBloomFilter.isEnabledFor(template) || userIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<String>> userIdsByKey = userIds.stream()
+                .collect(Collectors.groupingBy(userId -> usersKey(template, userId)));
+        userIdsByKey.forEach((usersKey, ids) -> redisTemplate.opsForSet().remove(usersKey, ids.toArray()));
+    }
+
+    // 카운터에 기록된 예약 수(분할 합계). 노드가 임차 중인 재고와 아직 DB 에 반영되지 않은 요청도 포함됩니다.
+    public long reservedCount(CouponTemplateCacheDto template) {
+        int stripes = template.stripeCount();
+        List<String> counterKeys = IntStream.range(0, stripes)
+                .mapToObj(stripe -> counterKey(template.getId(), stripes, stripe))
+                .toList();
+
+        List<String> values = redisTemplate.opsForValue().multiGet(counterKeys);
+        if (values == null) {
+            return 0;
+        }
+        return values.stream().filter(Objects::nonNull).mapToLong(Long::parseLong).sum();
+    }
+
+    /**
+     * 카운터가 DB 에 저장된 쿠폰 수보다 작으면 그 값까지 올리고, 올린 수량을 반환합니다.
+     * 작은 카운터는 초과 발급으로 이어지므로 올리는 방향만 보정합니다.
+     * 분할 카운터나 재고 임차를 쓰는 템플릿은 분할별 할당량에 맞춰 나눌 수 없으므로 보정하지 않습니다.
+     */
+    public long raiseReservedCount(CouponTemplateCacheDto template, long floor) {
+        if (leaseEnabled || template.stripeCount() > 1) {
+            return 0;
+        }
+        Long raised = redisTemplate.execute(RAISE_SCRIPT,
+                List.of(String.format(COUPON_COUNT_KEY, template.getId())), String.valueOf(floor));
+        return raised == null ? 0 : raised;
+    }
+
+    private CouponIssueResult reserveStriped(CouponTemplateCacheDto template, String userId, int stripes) {
+        Long templateId = template.getId();
+        int home = homeStripe(userId, stripes);
+
+        Long code = redisTemplate.execute(ISSUE_SCRIPT, stripeKeys(templateId, home), userId,
+                String.valueOf(allotment(template.getTotalQuantity(), stripes, home)));
+        CouponIssueResult result = CouponIssueResult.of(code);
+        if (result != CouponIssueResult.SOLD_OUT) {
+            return result;
+        }
+
+        // 자기 분할이 소진된 경우: 인접 분할에서 재고를 먼저 확보한 뒤 자기 분할에 사용자를 기록합니다.
+        // 분할 키는 서로 다른 슬롯에 있어 한 스크립트로 묶을 수 없으므로, 중간에 실패해도 초과 발급이 생기지 않고
+        // 같은 사용자의 동시 요청 중 하나만 성공하는 순서로 처리합니다.
+        for (int offset = 1; offset < stripes; offset++) {
+            int stripe = (home + offset) % stripes;
+            String counterKey = String.format(COUPON_STRIPE_COUNT_KEY, templateId, stripe);
+            Long granted = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(counterKey),
+                    String.valueOf(allotment(template.getTotalQuantity(), stripes, stripe)), "1");
+            if (granted == null || granted <= 0) {
+                continue;
+            }
+
+            Long added = redisTemplate.opsForSet().add(String.format(COUPON_STRIPE_USERS_KEY, templateId, home), userId);
+            if (added != null && added > 0) {
+                return CouponIssueResult.SUCCESS;
+            }
+
+            // 같은 사용자의 다른 요청이 먼저 기록된 경우 확보한 재고를 같은 분할로 되돌립니다.
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(counterKey), "1");
+            return CouponIssueResult.ALREADY_ISSUED;
+        }
+
+        return CouponIssueResult.SOLD_OUT;
+    }
+
+    private boolean releaseStriped(CouponTemplateCacheDto template, String userId, int stripes) {
+        Long templateId = template.getId();
+        int home = homeStripe(userId, stripes);
+
+        Long removed = redisTemplate.opsForSet().remove(String.format(COUPON_STRIPE_USERS_KEY, templateId, home), userId);
+        if (removed == null || removed == 0) {
+            return false;
+        }
+
+        // 재고는 분할 간에 대체 가능하므로, 자기 분할부터 반납 가능한 카운터를 찾습니다.
+        for (int offset = 0; offset < stripes; offset++) {
+            int stripe = (home + offset) % stripes;
+            Long released = redisTemplate.execute(RELEASE_SCRIPT,
+                    List.of(String.format(COUPON_STRIPE_COUNT_KEY, templateId, stripe)), "1");
+            if (released != null && released > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 다른 노드가 소진을 알렸더라도 이 노드에 임차분이 남아 있으면 계속 발급할 수 있습니다.
+    public boolean hasLeasedStock(Long templateId) {
+        CouponStockLease lease = leases.get(templateId);
+        return lease != null && lease.hasStock();
+    }
+
+    private CouponIssueResult reserveLeased(CouponTemplateCacheDto template, String userId) {
+        String usersKey = usersKey(template, userId);
+        Long added = redisTemplate.opsForSet().add(usersKey, userId);
+        if (added == null || added == 0) {
+            return CouponIssueResult.ALREADY_ISSUED;
+        }
+
+        CouponStockLease lease = leases.computeIfAbsent(template.getId(),
+                id -> newLease(template));
+
+        if (lease.tryTake() || refillAndTake(template, lease)) {
+            return CouponIssueResult.SUCCESS;
+        }
+
+        redisTemplate.opsForSet().remove(usersKey, userId);
+        return CouponIssueResult.SOLD_OUT;
+    }
+
+    private boolean refillAndTake(CouponTemplateCacheDto template, CouponStockLease lease) {
+        // 같은 템플릿의 재임차는 노드 안에서 한 스레드만 수행합니다.
+        synchronized (lease) {
+            if (lease.tryTake()) {
+                return true;
+            }
+
+            long taken = lease.getRecorded() > 0 ? takeRecorded(template.getId(), lease, leaseLocalSize) : 0;
+            if (taken <= 0) {
+                long granted = acquireFromCounters(template, leaseBlockSize);
+                if (granted <= 0) {
+                    return false;
+                }
+                taken = Math.min(granted, leaseLocalSize);
+                if (!recordLease(template.getId(), lease, granted - taken)) {
+                    taken = granted;
+                }
+            }
+            lease.add(taken - 1);
+            return true;
+        }
+    }
+
+    // 기록에 실패하면 false 를 반환하며, 이때 임차분은 모두 메모리에서 차감합니다.
+    private boolean recordLease(Long templateId, CouponStockLease lease, long quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForHash().increment(leaseKey, leaseField(templateId, lease.getStripes()), quantity);
+            lease.setRecorded(lease.getRecorded() + quantity);
+            return true;
+        } catch (Exception e) {
+            log.warn("임차 재고 기록 실패. 메모리에서만 차감합니다. templateId: {}, quantity: {}", templateId, quantity, e);
+            return false;
+        }
+    }
+
+    // 기록된 임차분을 메모리로 꺼냅니다. 요청보다 적게 꺼냈다면 기록이 비었거나 다른 노드가 이미 회수한 것입니다.
+    private long takeRecorded(Long templateId, CouponStockLease lease, long quantity) {
+        Long taken = redisTemplate.execute(LEASE_TAKE_SCRIPT, List.of(leaseKey),
+                leaseField(templateId, lease.getStripes()), String.valueOf(quantity));
+        long moved = taken == null ? 0 : taken;
+        lease.setRecorded(quantity < 0 || moved < quantity ? 0 : lease.getRecorded() - moved);
+        return moved;
+    }
+
+    private void releaseLeased(CouponTemplateCacheDto template, String userId) {
+        Long removed = redisTemplate.opsForSet().remove(usersKey(template, userId), userId);
+        if (removed != null && removed > 0) {
+            leases.computeIfAbsent(template.getId(), id -> newLease(template)).add(1);
+        }
+    }
+
+    private long acquireFromCounters(CouponTemplateCacheDto template, long quantity) {
+        int stripes = template.stripeCount();
+        long granted = 0;
+
+        for (int offset = 0; offset < stripes && granted < quantity; offset++) {
+            int stripe = (leaseStripeOffset + offset) % stripes;
+            Long acquired = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(counterKey(template.getId(), stripes, stripe)),
+                    String.valueOf(counterLimit(template.getTotalQuantity(), stripes, stripe)),
+                    String.valueOf(quantity - granted));
+            granted += acquired == null ? 0 : acquired;
+        }
+        return granted;
+    }
+
+    private void returnToCounters(Long templateId, int stripes, long quantity) {
+        long returned = 0;
+
+        for (int offset = 0; offset < stripes && returned < quantity; offset++) {
+            int stripe = (leaseStripeOffset + offset) % stripes;
+            Long released = redisTemplate.execute(RELEASE_SCRIPT, List.of(counterKey(templateId, stripes, stripe)),
+                    String.valueOf(quantity - returned));
+            returned += released == null ? 0 : released;
+        }
+
+        if (returned > 0) {
+            couponSoldOutRegistry.clear(templateId);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void returnExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        leases.forEach((templateId, lease) -> {
+            if (lease.isExpired(now) && leases.remove(templateId, lease)) {
+                returnLease(templateId, lease);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void returnAllLeases() {
+        leases.forEach((templateId, lease) -> {
+            if (leases.remove(templateId, lease)) {
+                returnLease(templateId, lease);
+            }
+        });
+        if (leaseEnabled) {
+            // 반납하지 못한 기록이 남았다면 다른 노드가 바로 회수할 수 있게 합니다.
+            redisTemplate.delete(leaseHeartbeatKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.issue.stock-lease.heartbeat-interval-ms:10000}")
+    public void heartbeatLeases() {
+        if (!leaseEnabled) {
+            return;
+        }
+        redisTemplate.opsForValue().set(leaseHeartbeatKey, String.valueOf(System.currentTimeMillis()),
+                Duration.ofMillis(leaseHeartbeatTtlMs));
+    }
+
+    /**
+     * 하트비트가 끊긴 노드의 임차 기록을 가져와 중앙 카운터로 돌려줍니다.
+     * 기록은 스크립트 안에서 읽고 바로 지우므로 여러 노드가 동시에 회수해도 한 번만 반납됩니다.
+     *
+     * @return 반납한 재고 수량
+     */
+    @Scheduled(fixedDelayString = "${coupon.issue.stock-lease.recovery-interval-ms:60000}")
+    public long reclaimOrphanedLeases() {
+        if (!leaseEnabled) {
+            return 0;
+        }
+
+        List<String> orphanedKeys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(LEASE_KEY_PREFIX + "{*}").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(key -> {
+                if (!key.equals(leaseKey)) {
+                    orphanedKeys.add(key);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("임차 기록 조회 실패", e);
+            return 0;
+        }
+
+        long reclaimed = 0;
+        for (String orphanedKey : orphanedKeys) {
+            reclaimed += reclaimLeases(orphanedKey);
+        }
+        return reclaimed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long reclaimLeases(String orphanedKey) {
+        List<String> entries = redisTemplate.execute(LEASE_RECOVER_SCRIPT, List.of(orphanedKey, orphanedKey + ":heartbeat"));
+        if (entries == null || entries.isEmpty()) {
+            return 0;
+        }
+
+        long reclaimed = 0;
+        for (int i = 0; i + 1 < entries.size(); i += 2) {
+            String[] field = entries.get(i).split(":");
+            Long templateId = Long.parseLong(field[0]);
+            long quantity = Long.parseLong(entries.get(i + 1));
+            try {
+                returnToCounters(templateId, Integer.parseInt(field[1]), quantity);
+                reclaimed += quantity;
+                log.warn("하트비트가 끊긴 노드의 임차 재고를 반납했습니다. owner: {}, templateId: {}, quantity: {}",
+                        orphanedKey, templateId, quantity);
+            } catch (Exception e) {
+                log.error("회수한 임차 재고 반납 실패. owner: {}, templateId: {}, quantity: {}",
+                        orphanedKey, templateId, quantity, e);
+            }
+        }
+        return reclaimed;
+    }
+
+    private void returnLease(Long templateId, CouponStockLease lease) {
+        long remaining;
+        try {
+            synchronized (lease) {
+                remaining = lease.drain();
+                if (lease.getRecorded() > 0) {
+                    remaining += takeRecorded(templateId, lease, -1);
+                }
+            }
+        } catch (Exception e) {
+            // 기록은 그대로 남으므로 이 노드가 종료된 뒤 다른 노드가 회수합니다.
+            log.error("임차 기록 회수 실패. templateId: {}", templateId, e);
+            return;
+        }
+
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            returnToCounters(templateId, lease.getStripes(), remaining);
+            log.info("임차 재고 반납. templateId: {}, quantity: {}", templateId, remaining);
+        } catch (Exception e) {
+            log.error("임차 재고 반납 실패. templateId: {}, quantity: {}", templateId, remaining, e);
+        }
+    }
+
+    private CouponStockLease newLease(CouponTemplateCacheDto template) {
+        return new CouponStockLease(template.getValidUntil(), template.stripeCount());
+    }
+
+    private String leaseField(Long templateId, int stripes) {
+        return templateId + ":" + stripes;
+    }
+
+    private String usersKey(CouponTemplateCacheDto template, String userId) {
+        int stripes = template.stripeCount();
+        if (stripes > 1) {
+            return String.format(COUPON_STRIPE_USERS_KEY, template.getId(), homeStripe(userId, stripes));
+        }
+        return String.format(COUPON_USERS_KEY, template.getId());
+    }
+
+    private String bloomKey(CouponTemplateCacheDto template, String userId) {
+        return usersKey(template, userId) + ":bloom";
+    }
+
+    // 사용자는 해시로 분할에 배정되므로 분할마다 전체 수량의 1/N 이 들어온다고 보고 크기를 정합니다.
+    private long bloomCapacity(CouponTemplateCacheDto template) {
+        int stripes = template.stripeCount();
+        return (template.getTotalQuantity() + stripes - 1) / stripes;
+    }
+
+    private String counterKey(Long templateId, int stripes, int stripe) {
+        if (stripes > 1) {
+            return String.format(COUPON_STRIPE_COUNT_KEY, templateId, stripe);
+        }
+        return String.format(COUPON_COUNT_KEY, templateId);
+    }
+
+    private long counterLimit(int totalQuantity, int stripes, int stripe) {
+        if (stripes > 1) {
+            return allotment(totalQuantity, stripes, stripe);
+        }
+        return totalQuantity;
+    }
+
+    static int homeStripe(String userId, int stripes) {
+        return Math.floorMod(userId.hashCode(), stripes);
+    }
+
+    static long allotment(int totalQuantity, int stripes, int stripe) {
+        return totalQuantity / stripes + (stripe < totalQuantity % stripes ? 1 : 0);
+    }
+
+    private List<String> keys(Long templateId) {
+        return List.of(
+                String.format(COUPON_USERS_KEY, templateId),
+                String.format(COUPON_COUNT_KEY, templateId)
+        );
+    }
+
+    private List<String> stripeKeys(Long templateId, int stripe) {
+        return List.of(
+                String.format(COUPON_STRIPE_USERS_KEY, templateId, stripe),
+                String.format(COUPON_STRIPE_COUNT_KEY, templateId, stripe)
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+
+/**
+ * Redis 에 저장되는 쿠폰 템플릿 캐시 값의 직렬화 형식.
+ * 읽기 측은 {@link #supports(byte[])} 로 저장된 값의 형식을 판별하므로, 쓰기 형식을 바꾸더라도
+ * 기존 값이 만료될 때까지 무중단으로 두 형식을 함께 읽을 수 있습니다.
+ */
+public interface CouponTemplateCodec {
+
+    String format();
+
+    boolean supports(byte[] value);
+
+    byte[] encode(CouponTemplateCacheDto template);
+
+    CouponTemplateCacheDto decode(byte[] value);
+}
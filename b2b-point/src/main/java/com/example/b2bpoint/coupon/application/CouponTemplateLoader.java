@@ -0,0 +1,157 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 캐시 미스 시 쿠폰 템플릿을 한 번만 적재하도록 조율합니다.
+ *
+ * <p>노드 안에서는 템플릿별로 하나의 적재만 진행되고 나머지 요청은 같은 future 를 기다립니다(single-flight).
+ * 노드 간에는 Redis 락을 잡은 노드만 DB 를 조회하고, 적재가 끝나면 Pub/Sub 으로 알려 대기 중인 노드가
+ * 폴링 없이 바로 캐시를 다시 읽도록 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponTemplateLoader implements MessageListener {
+
+    private static final String LOCK_KEY = "lock:coupon:template:";
+    private static final String POPULATED_CHANNEL = "coupon:template:populated";
+
+    private final CouponReader couponReader;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, CompletableFuture<CouponTemplateCacheDto>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> populatedSignals = new ConcurrentHashMap<>();
+
+    @Value("${coupon.template.loader.wait-ms:200}")
+    private long waitMs;
+
+    @Value("${coupon.template.loader.max-attempts:10}")
+    private int maxAttempts;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(POPULATED_CHANNEL));
+    }
+
+    public CouponTemplateCacheDto load(Long templateId) {
+        CouponTemplateCacheDto dto = couponReader.findTemplateFromCache(templateId);
+        if (dto != null) {
+            return dto;
+        }
+
+        CompletableFuture<CouponTemplateCacheDto> myLoad = new CompletableFuture<>();
+        CompletableFuture<CouponTemplateCacheDto> existingLoad = inFlightLoads.putIfAbsent(templateId, myLoad);
+        if (existingLoad != null) {
+            return await(existingLoad);
+        }
+
+        try {
+            CouponTemplateCacheDto loaded = loadAcrossCluster(templateId);
+            myLoad.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            myLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(templateId, myLoad);
+        }
+    }
+
+    private CouponTemplateCacheDto loadAcrossCluster(Long templateId) {
+        String lockKey = LOCK_KEY + templateId;
+
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, "locked", Duration.ofSeconds(5));
+
+            if (Boolean.TRUE.equals(acquired)) {
+                try {
+                    CouponTemplateCacheDto dto = couponReader.findTemplateFromDbAndCache(templateId);
+                    publishPopulated(templateId);
+                    return dto;
+                } finally {
+                    redisTemplate.delete(lockKey);
+                }
+            }
+
+            CouponTemplateCacheDto dto = waitForPopulation(templateId);
+            if (dto != null) {
+                return dto;
+            }
+        }
+
+        // 락을 가진 노드가 응답하지 않는 경우에도 요청이 무한정 대기하지 않도록 직접 조회합니다.
+        log.warn("쿠폰 템플릿 적재 대기 횟수 초과. DB 에서 직접 조회합니다. templateId: {}", templateId);
+        return couponReader.findTemplateFromDbAndCache(templateId);
+    }
+
+    private CouponTemplateCacheDto waitForPopulation(Long templateId) {
+        CompletableFuture<Void> signal = populatedSignals.computeIfAbsent(templateId, id -> new CompletableFuture<>());
+        try {
+            // 신호 등록 전에 적재가 끝났을 수 있으므로 한 번 더 확인합니다.
+            CouponTemplateCacheDto dto = couponReader.findTemplateFromCache(templateId);
+            if (dto != null) {
+                return dto;
+            }
+
+            signal.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // 시간 초과 시 캐시를 다시 확인하고 락 획득을 재시도합니다.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("쿠폰 템플릿 적재 대기 중 인터럽트가 발생했습니다.", e);
+        } finally {
+            populatedSignals.remove(templateId, signal);
+        }
+        return couponReader.findTemplateFromCache(templateId);
+    }
+
+    private void publishPopulated(Long templateId) {
+        try {
+            redisTemplate.convertAndSend(POPULATED_CHANNEL, String.valueOf(templateId));
+        } catch (Exception e) {
+            log.warn("쿠폰 템플릿 적재 이벤트 발행 실패. templateId: {}", templateId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Long templateId = Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8));
+        CompletableFuture<Void> signal = populatedSignals.remove(templateId);
+        if (signal != null) {
+            signal.complete(null);
+        }
+    }
+
+    private CouponTemplateCacheDto await(CompletableFuture<CouponTemplateCacheDto> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
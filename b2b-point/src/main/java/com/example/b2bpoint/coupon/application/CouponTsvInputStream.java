@@ -0,0 +1,106 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.Coupon;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 쿠폰 목록을 LOAD DATA 용 TSV 로 한 행씩 인코딩해 내보내는 스트림.
+ * 전체 파일을 메모리나 디스크에 만들지 않고, 드라이버가 읽는 만큼만 행을 인코딩합니다.
+ * 컬럼 순서는 {@link #COLUMNS} 와 같으며, 탭/개행/역슬래시는 MySQL 기본 ESCAPED BY '\\' 규칙으로 이스케이프합니다.
+ */
+class CouponTsvInputStream extends InputStream {
+
+    static final String COLUMNS =
+            "id, partner_id, user_id, coupon_template_id, status, issued_at, expired_at, code, created_at, updated_at";
+
+    private final Iterator<Coupon> coupons;
+    private final Iterator<Long> ids;
+    private final String now = Timestamp.valueOf(LocalDateTime.now()).toString();
+
+    private byte[] row = new byte[0];
+    private int position;
+
+    // ids 는 coupons 와 같은 순서로 미리 발급한 ID 입니다. 적재 후 어떤 행이 이번에 저장되었는지 확인하는 데 쓰입니다.
+    CouponTsvInputStream(List<Coupon> coupons, List<Long> ids) {
+        if (coupons.size() != ids.size()) {
+            throw new IllegalArgumentException("coupons and ids must have the same size");
+        }
+        this.coupons = coupons.iterator();
+        this.ids = ids.iterator();
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        return row[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int written = 0;
+        while (written < length && fill()) {
+            int count = Math.min(length - written, row.length - position);
+            System.arraycopy(row, position, buffer, offset + written, count);
+            position += count;
+            written += count;
+        }
+        return written == 0 ? -1 : written;
+    }
+
+    private boolean fill() {
+        if (position < row.length) {
+            return true;
+        }
+        if (!coupons.hasNext()) {
+            return false;
+        }
+        row = encode(ids.next(), coupons.next()).getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        return true;
+    }
+
+    private String encode(long id, Coupon coupon) {
+        return new StringBuilder(180)
+                .append(id).append('\t')
+                .append(coupon.getPartnerId()).append('\t')
+                .append(escape(coupon.getUserId())).append('\t')
+                .append(coupon.getCouponTemplateId()).append('\t')
+                .append(coupon.getStatus()).append('\t')
+                .append(Timestamp.valueOf(coupon.getIssuedAt())).append('\t')
+                .append(Timestamp.valueOf(coupon.getExpiredAt())).append('\t')
+                .append(escape(coupon.getCode())).append('\t')
+                .append(now).append('\t')
+                .append(now).append('\n')
+                .toString();
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "\\N";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\0' -> escaped.append("\\0");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
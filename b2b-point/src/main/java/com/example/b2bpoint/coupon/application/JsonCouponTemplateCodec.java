@@ -0,0 +1,45 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class JsonCouponTemplateCodec implements CouponTemplateCodec {
+
+    public static final String FORMAT = "JSON";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+
+    @Override
+    public boolean supports(byte[] value) {
+        return value.length > 0 && value[0] == '{';
+    }
+
+    @Override
+    public byte[] encode(CouponTemplateCacheDto template) {
+        try {
+            return objectMapper.writeValueAsBytes(template);
+        } catch (IOException e) {
+            throw new IllegalStateException("쿠폰 템플릿 JSON 직렬화 실패", e);
+        }
+    }
+
+    @Override
+    public CouponTemplateCacheDto decode(byte[] value) {
+        try {
+            return objectMapper.readValue(value, CouponTemplateCacheDto.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("쿠폰 템플릿 JSON 역직렬화 실패", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CouponIssueBatchScheduler 가 처리하는 리스트 버퍼
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.buffer.type", havingValue = "LIST", matchIfMissing = true)
+public class RedisListCouponIssueBuffer implements CouponIssueBuffer {
+
+    static final String COUPON_ISSUE_REQUEST_LIST_KEY = "coupon:issue:requests";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void append(List<CouponIssueMessage> messages) throws JsonProcessingException {
+        List<String> messageJsonList = new ArrayList<>(messages.size());
+        for (CouponIssueMessage message : messages) {
+            messageJsonList.add(objectMapper.writeValueAsString(message));
+        }
+        redisTemplate.opsForList().leftPushAll(COUPON_ISSUE_REQUEST_LIST_KEY, messageJsonList);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// CouponIssueStreamWorker 가 컨슈머 그룹으로 처리하는 스트림 버퍼
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.buffer.type", havingValue = "STREAM")
+public class RedisStreamCouponIssueBuffer implements CouponIssueBuffer {
+
+    static final String STREAM_KEY = "coupon:issue:stream";
+    static final String MESSAGE_FIELD = "message";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void append(List<CouponIssueMessage> messages) throws JsonProcessingException {
+        List<String> messageJsonList = new ArrayList<>(messages.size());
+        for (CouponIssueMessage message : messages) {
+            messageJsonList.add(objectMapper.writeValueAsString(message));
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String messageJson : messageJsonList) {
+                stringConnection.xAdd(STREAM_KEY, Map.of(MESSAGE_FIELD, messageJson));
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// 기존 형식(36자 UUID). UUID.randomUUID() 는 공유 SecureRandom 을 사용하므로 대량 발급 시 경합이 생길 수 있습니다.
+@Component
+@ConditionalOnProperty(name = "coupon.code.format", havingValue = "UUID")
+public class UuidCouponCodeGenerator implements CouponCodeGenerator {
+
+    @Override
+    public String generate() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -33,6 +33,18 @@ public class CouponController {
         return ApiResponse.success(response);
     }
 
+    @PatchMapping("/template/{templateId}/quantity")
+    public ApiResponse<CouponTemplateResponse> increaseCouponTemplateQuantity(
+            @RequestAttribute Long partnerId,
+            @PathVariable Long templateId,
+            @RequestBody @Valid CouponTemplateQuantityRequest request
+    ) {
+
+        CouponTemplateResponse response = couponService.increaseCouponTemplateQuantity(partnerId, templateId, request);
+
+        return ApiResponse.success(response);
+    }
+
     @PostMapping("/issue")
     @ResponseStatus(HttpStatus.CREATED)
     public ApiResponse<CouponResponse> issueCoupon(
@@ -55,6 +67,15 @@ public class CouponController {
         return ApiResponse.success(response);
     }
 
+    @GetMapping("/issue-async/{ticketId}")
+    public ApiResponse<CouponIssueTicketResponse> getIssueTicket(
+            @RequestAttribute Long partnerId,
+            @PathVariable String ticketId) {
+
+        CouponIssueTicketResponse response = couponService.getIssueTicket(partnerId, ticketId);
+        return ApiResponse.success(response);
+    }
+
     @GetMapping("/{userId}")
     public ApiResponse<List<CouponResponse>> getCoupons(
             @RequestAttribute Long partnerId,
@@ -75,4 +96,14 @@ public class CouponController {
         CouponUseResponse response = couponService.useCoupon(partnerId, userId, couponCode);
         return ApiResponse.success(response);
     }
+
+    @PostMapping("/checkout")
+    public ApiResponse<CouponCheckoutResponse> checkout(
+            @RequestAttribute Long partnerId,
+            @RequestBody @Valid CouponCheckoutRequest request
+    ) {
+
+        CouponCheckoutResponse response = couponService.checkout(partnerId, request);
+        return ApiResponse.success(response);
+    }
 }
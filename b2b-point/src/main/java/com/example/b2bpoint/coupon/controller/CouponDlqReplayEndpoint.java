@@ -0,0 +1,34 @@
+package com.example.b2bpoint.coupon.controller;
+
+import com.example.b2bpoint.coupon.application.CouponIssueDlqReplayer;
+import com.example.b2bpoint.coupon.dto.CouponIssueDlqReplayReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 운영용 DLQ 재처리 엔드포인트. 노출 설정은 공개 여부만 정할 뿐 인증을 하지 않고, API 키 인터셉터도 /api/v1/** 에만 적용되므로
+ * actuator 는 파트너 API 와 다른 management.server.port 로 띄우고 그 포트는 내부망에서만 접근할 수 있게 해야 합니다.
+ * GET /actuator/couponDlqReplay : 진행 상황 조회, POST /actuator/couponDlqReplay {"maxMessages": N} : 재처리 시작
+ */
+@Component
+@Endpoint(id = "couponDlqReplay")
+@RequiredArgsConstructor
+public class CouponDlqReplayEndpoint {
+
+    private final CouponIssueDlqReplayer couponIssueDlqReplayer;
+
+    @ReadOperation
+    public CouponIssueDlqReplayReport report() {
+        return couponIssueDlqReplayer.report();
+    }
+
+    @WriteOperation
+    public CouponIssueDlqReplayReport replay(@Nullable Long maxMessages) {
+        couponIssueDlqReplayer.start(maxMessages == null ? Long.MAX_VALUE : maxMessages);
+        return couponIssueDlqReplayer.report();
+    }
+}
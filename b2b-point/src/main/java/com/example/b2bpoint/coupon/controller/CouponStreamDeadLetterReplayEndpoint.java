@@ -0,0 +1,37 @@
+package com.example.b2bpoint.coupon.controller;
+
+import com.example.b2bpoint.coupon.application.CouponIssueStreamWorker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 운영용 스트림 데드레터 재처리 엔드포인트. coupon:issue:stream:dead 의 항목을 원래 스트림에 다시 넣습니다.
+ * 인증이 없으므로 management.server.port 로만 노출합니다. ({@link CouponDlqReplayEndpoint} 참고)
+ * GET /actuator/couponStreamDeadReplay : 남은 항목 수 조회, POST /actuator/couponStreamDeadReplay {"maxRecords": N} : 재처리
+ */
+@Component
+@Endpoint(id = "couponStreamDeadReplay")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.issue.buffer.type", havingValue = "STREAM")
+public class CouponStreamDeadLetterReplayEndpoint {
+
+    private final CouponIssueStreamWorker couponIssueStreamWorker;
+
+    @ReadOperation
+    public Map<String, Long> report() {
+        return Map.of("remaining", couponIssueStreamWorker.deadLetterCount());
+    }
+
+    @WriteOperation
+    public Map<String, Long> replay(@Nullable Long maxRecords) {
+        long replayed = couponIssueStreamWorker.replayDeadLetters(maxRecords == null ? Long.MAX_VALUE : maxRecords);
+        return Map.of("replayed", replayed, "remaining", couponIssueStreamWorker.deadLetterCount());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.b2bpoint.coupon.domain;
 
 
 import com.example.b2bpoint.common.domain.BaseEntity;
+import com.example.b2bpoint.common.domain.SnowflakeId;
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
 import jakarta.persistence.*;
@@ -11,21 +12,22 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
 @Table(name = "coupons", indexes = {
         @Index(name = "idx_coupon_user_partner", columnList = "user_id, partner_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_coupons_template_user", columnNames = {"coupon_template_id", "user_id"})
 })
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Coupon extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
-    @Column(nullable = false, unique = true, updatable = false)
+    @Column(nullable = false, unique = true, updatable = false, length = 36)
     private String code;
 
     @Column(name = "partner_id", nullable = false, updatable = false)
@@ -56,9 +58,10 @@ public class Coupon extends BaseEntity {
 
 
 
+    // 쿠폰 코드는 CouponCodeGenerator 로 만들어 전달합니다. 엔티티에서 UUID 를 만들면 대량 발급 시 공유 SecureRandom 에서 경합이 생깁니다.
     @Builder
-    public Coupon(Long partnerId, String userId, CouponTemplate couponTemplate) {
-        this.code = UUID.randomUUID().toString();
+    public Coupon(Long partnerId, String userId, CouponTemplate couponTemplate, String code) {
+        this.code = requireCode(code);
         this.partnerId = partnerId;
         this.userId = userId;
         this.couponTemplate = couponTemplate;
@@ -72,8 +75,8 @@ public class Coupon extends BaseEntity {
     }
 
     @Builder(builderMethodName = "issueBuilder", builderClassName = "issueBuilder")
-    public Coupon(Long partnerId, String userId, Long couponTemplateId, LocalDateTime validUntil) {
-        this.code = UUID.randomUUID().toString();
+    public Coupon(Long partnerId, String userId, Long couponTemplateId, LocalDateTime validUntil, String code) {
+        this.code = requireCode(code);
         this.partnerId = partnerId;
         this.userId = userId;
         this.couponTemplateId = couponTemplateId; // ID를 직접 할당
@@ -82,8 +85,8 @@ public class Coupon extends BaseEntity {
         this.expiredAt = validUntil;
     }
 
-    private Coupon(Long partnerId, String userId, CouponTemplate couponTemplate, Long couponTemplateId, LocalDateTime expiredAt) {
-        this.code = UUID.randomUUID().toString();
+    private Coupon(Long partnerId, String userId, CouponTemplate couponTemplate, Long couponTemplateId, LocalDateTime expiredAt, String code) {
+        this.code = requireCode(code);
         this.partnerId = partnerId;
         this.userId = userId;
         this.couponTemplate = couponTemplate;
@@ -93,12 +96,20 @@ public class Coupon extends BaseEntity {
         this.expiredAt = expiredAt;
     }
 
-    public static Coupon createFromMessage(Long partnerId, String userId, Long couponTemplateId, LocalDateTime expiredAt) {
+    // 발급 요청 시점에 정해진 쿠폰 코드로 생성합니다.
+    public static Coupon createFromMessage(Long partnerId, String userId, Long couponTemplateId, LocalDateTime expiredAt, String code) {
         if (couponTemplateId == null || expiredAt == null) {
             throw new IllegalArgumentException("couponTemplateId and expiredAt cannot be null");
         }
         // couponTemplate 객체는 null로 두고, ID와 만료일만 직접 설정
-        return new Coupon(partnerId, userId, null, couponTemplateId, expiredAt);
+        return new Coupon(partnerId, userId, null, couponTemplateId, expiredAt, code);
+    }
+
+    private static String requireCode(String code) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("code cannot be empty");
+        }
+        return code;
     }
 
 
@@ -108,7 +119,7 @@ public class Coupon extends BaseEntity {
         this.usedAt = LocalDateTime.now();
     }
 
-    private void verifyCanBeUsed(Long requestPartnerId, String requestUserId) {
+    public void verifyCanBeUsed(Long requestPartnerId, String requestUserId) {
         if (!this.partnerId.equals(requestPartnerId)) {
             throw new CustomException(ErrorCode.FORBIDDEN_ACCESS);
         }
@@ -0,0 +1,30 @@
+package com.example.b2bpoint.coupon.domain;
+
+import com.example.b2bpoint.common.exception.ErrorCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Redis 발급 스크립트의 결과 코드
+@Getter
+@RequiredArgsConstructor
+public enum CouponIssueResult {
+    SUCCESS(1L, null),
+    ALREADY_ISSUED(2L, ErrorCode.COUPON_ALREADY_ISSUED),
+    SOLD_OUT(3L, ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
+
+    private final long code;
+    private final ErrorCode errorCode;
+
+    public static CouponIssueResult of(Long code) {
+        for (CouponIssueResult result : values()) {
+            if (code != null && result.code == code) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("알 수 없는 발급 스크립트 결과입니다: " + code);
+    }
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
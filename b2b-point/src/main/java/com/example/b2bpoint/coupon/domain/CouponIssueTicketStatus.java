@@ -0,0 +1,7 @@
+package com.example.b2bpoint.coupon.domain;
+
+public enum CouponIssueTicketStatus {
+    PENDING,
+    ISSUED,
+    FAILED
+}
@@ -1,6 +1,7 @@
 package com.example.b2bpoint.coupon.domain;
 
 import com.example.b2bpoint.common.domain.BaseEntity;
+import com.example.b2bpoint.common.domain.SnowflakeId;
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
 import jakarta.persistence.*;
@@ -19,7 +20,7 @@ import java.time.LocalDateTime;
 public class CouponTemplate extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "partner_id", nullable = false)
@@ -45,6 +46,9 @@ public class CouponTemplate extends BaseEntity {
     @Column(nullable = false)
     private Integer issuedQuantity;
 
+    @Column(nullable = false)
+    private Integer stockStripes; // 1이면 단일 카운터, 2 이상이면 분할 카운터 (핫 템플릿)
+
 
     @Column(nullable = false)
     private LocalDateTime validFrom;
@@ -57,7 +61,7 @@ public class CouponTemplate extends BaseEntity {
     @Builder
     public CouponTemplate(Long partnerId, String name, CouponType couponType,
                           BigDecimal discountValue, Integer maxDiscountAmount, Integer minOrderAmount,
-                          Integer totalQuantity, LocalDateTime validFrom, LocalDateTime validUntil) {
+                          Integer totalQuantity, Integer stockStripes, LocalDateTime validFrom, LocalDateTime validUntil) {
         this.partnerId = partnerId;
         this.name = name;
         this.couponType = couponType;
@@ -66,11 +70,20 @@ public class CouponTemplate extends BaseEntity {
         this.minOrderAmount = minOrderAmount;
         this.totalQuantity = totalQuantity;
         this.issuedQuantity = 0; // 최초 생성 시 발급 수량은 0
+        this.stockStripes = pinStripes(stockStripes, totalQuantity);
         this.validFrom = validFrom;
         this.validUntil = validUntil;
     }
 
 
+    // 분할 수는 사용자 배정과 카운터 키 이름을 결정하므로 생성 시점에 고정하고, 수량이 늘어도 바꾸지 않습니다.
+    private static int pinStripes(Integer stockStripes, Integer totalQuantity) {
+        if (stockStripes == null || stockStripes < 1 || totalQuantity == null) {
+            return 1;
+        }
+        return Math.min(stockStripes, totalQuantity);
+    }
+
     public void increaseIssuedQuantity() {
         if (this.totalQuantity != null) {
             if (this.issuedQuantity >= this.totalQuantity) {
@@ -79,4 +92,11 @@ public class CouponTemplate extends BaseEntity {
         }
         this.issuedQuantity++;
     }
+
+    public void increaseTotalQuantity(int additionalQuantity) {
+        if (this.totalQuantity == null) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        this.totalQuantity += additionalQuantity;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.b2bpoint.coupon.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+public class CouponCheckoutRequest {
+
+    @NotBlank(message = "사용자 ID는 필수입니다.")
+    private String userId;
+
+    @NotNull(message = "주문 ID는 필수입니다.")
+    private Long orderId;
+
+    @NotNull(message = "주문 금액은 필수입니다.")
+    @Positive(message = "주문 금액은 0보다 커야 합니다.")
+    private Integer orderAmount;
+
+    @NotEmpty(message = "쿠폰 코드는 하나 이상 필요합니다.")
+    @Size(max = 20, message = "한 주문에 사용할 수 있는 쿠폰은 최대 20개입니다.")
+    private List<@NotBlank(message = "쿠폰 코드는 비어 있을 수 없습니다.") String> couponCodes;
+
+    @Builder
+    private CouponCheckoutRequest(String userId, Long orderId, Integer orderAmount, List<String> couponCodes) {
+        this.userId = userId;
+        this.orderId = orderId;
+        this.orderAmount = orderAmount;
+        this.couponCodes = couponCodes;
+    }
+}
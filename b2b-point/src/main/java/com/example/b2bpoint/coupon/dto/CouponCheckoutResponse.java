@@ -0,0 +1,29 @@
+package com.example.b2bpoint.coupon.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+public class CouponCheckoutResponse {
+
+    private final Long orderId;
+    private final int orderAmount;
+    private final int totalDiscountAmount;
+    private final int paymentAmount;          // 할인 적용 후 결제 금액
+    private final LocalDateTime usedAt;
+    private final List<CouponDiscountResponse> coupons;
+
+    @Builder
+    private CouponCheckoutResponse(Long orderId, int orderAmount, int totalDiscountAmount, int paymentAmount,
+                                   LocalDateTime usedAt, List<CouponDiscountResponse> coupons) {
+        this.orderId = orderId;
+        this.orderAmount = orderAmount;
+        this.totalDiscountAmount = totalDiscountAmount;
+        this.paymentAmount = paymentAmount;
+        this.usedAt = usedAt;
+        this.coupons = coupons;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.b2bpoint.coupon.dto;
+
+import com.example.b2bpoint.coupon.domain.CouponType;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class CouponDiscountResponse {
+
+    private final String couponCode;
+    // 엔티티 ID 는 문자열로 내보냅니다. (CouponTemplateResponse.id 참고)
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final Long couponTemplateId;
+    private final String couponName;
+    private final CouponType couponType;
+    private final int discountAmount;
+
+    @Builder
+    private CouponDiscountResponse(String couponCode, Long couponTemplateId, String couponName, CouponType couponType, int discountAmount) {
+        this.couponCode = couponCode;
+        this.couponTemplateId = couponTemplateId;
+        this.couponName = couponName;
+        this.couponType = couponType;
+        this.discountAmount = discountAmount;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.b2bpoint.coupon.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 여러 발급 메시지를 하나의 AMQP 메시지로 묶어 전달하기 위한 봉투 객체
+@Getter
+@NoArgsConstructor
+public class CouponIssueBatchMessage {
+    private List<CouponIssueMessage> messages;
+
+    public CouponIssueBatchMessage(List<CouponIssueMessage> messages) {
+        this.messages = messages;
+    }
+}
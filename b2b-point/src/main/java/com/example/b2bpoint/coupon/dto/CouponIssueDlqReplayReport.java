@@ -0,0 +1,35 @@
+package com.example.b2bpoint.coupon.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+public class CouponIssueDlqReplayReport {
+    private final String status;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final long replayed;        // 새로 저장된 요청이 있는 메시지 수
+    private final long alreadyIssued;   // 모든 요청이 이미 저장되어 있어 건너뛴 메시지 수 (ack 됨)
+    private final long unconvertible;
+    private final long failed;
+    private final Map<String, Long> replayedByReason;
+    private final String error;
+
+    @Builder
+    private CouponIssueDlqReplayReport(String status, LocalDateTime startedAt, LocalDateTime finishedAt, long replayed,
+                                       long alreadyIssued, long unconvertible, long failed, Map<String, Long> replayedByReason,
+                                       String error) {
+        this.status = status;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.replayed = replayed;
+        this.alreadyIssued = alreadyIssued;
+        this.unconvertible = unconvertible;
+        this.failed = failed;
+        this.replayedByReason = replayedByReason;
+        this.error = error;
+    }
+}
@@ -13,11 +13,26 @@ public class CouponIssueMessage {
     private Long couponTemplateId;
     private String userId;
     private LocalDateTime validUntil;
+    // 비동기 발급 결과 조회용 티켓과 미리 발급된 쿠폰 코드 (이전 버전 메시지에는 없을 수 있음)
+    private String ticketId;
+    private String code;
 
     public CouponIssueMessage(Long partnerId, Long couponTemplateId, String userId, LocalDateTime validUntil) {
+        this(partnerId, couponTemplateId, userId, validUntil, null, null);
+    }
+
+    public CouponIssueMessage(Long partnerId, Long couponTemplateId, String userId, LocalDateTime validUntil,
+                              String ticketId, String code) {
         this.partnerId = partnerId;
         this.couponTemplateId = couponTemplateId;
         this.userId = userId;
         this.validUntil = validUntil;
+        this.ticketId = ticketId;
+        this.code = code;
+    }
+
+    // 재전달된 요청이 처음 저장된 쿠폰의 코드를 보고하도록, 코드만 바꾼 사본을 만듭니다.
+    public CouponIssueMessage withCode(String code) {
+        return new CouponIssueMessage(partnerId, couponTemplateId, userId, validUntil, ticketId, code);
     }
 }
\ No newline at end of file
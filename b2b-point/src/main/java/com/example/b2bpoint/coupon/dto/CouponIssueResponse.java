@@ -7,10 +7,12 @@ import lombok.Getter;
 @Getter
 public class CouponIssueResponse {
     private final String message;
+    private final String ticketId;
 
     @Builder
-    private CouponIssueResponse(String message) {
+    private CouponIssueResponse(String message, String ticketId) {
         this.message = message;
+        this.ticketId = ticketId;
     }
 
 
@@ -0,0 +1,19 @@
+package com.example.b2bpoint.coupon.dto;
+
+import com.example.b2bpoint.coupon.domain.CouponIssueTicketStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class CouponIssueTicketResponse {
+    private final String ticketId;
+    private final CouponIssueTicketStatus status;
+    private final String couponCode;
+
+    @Builder
+    private CouponIssueTicketResponse(String ticketId, CouponIssueTicketStatus status, String couponCode) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.couponCode = couponCode;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.b2bpoint.coupon.dto;
 
 import com.example.b2bpoint.coupon.domain.Coupon;
 import com.example.b2bpoint.coupon.domain.CouponStatus;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -11,6 +13,8 @@ import java.time.LocalDateTime;
 @Getter
 public class CouponResponse {
 
+    // 엔티티 ID 는 문자열로 내보냅니다. (CouponTemplateResponse.id 참고)
+    @JsonSerialize(using = ToStringSerializer.class)
     private final Long couponId;          // 발급된 쿠폰의 고유 ID
     private final String couponCode;      // 발급된 쿠폰의 고유 코드
     private final String couponName;      // 어떤 종류의 쿠폰인지 (템플릿 이름)
@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Getter
@@ -21,6 +22,7 @@ public class CouponTemplateCacheDto {
     private Integer maxDiscountAmount;
     private Integer minOrderAmount;
     private Integer totalQuantity;
+    private Integer stockStripes;
     private LocalDateTime validFrom;
     private LocalDateTime validUntil;
 
@@ -35,6 +37,7 @@ public class CouponTemplateCacheDto {
         dto.maxDiscountAmount = entity.getMaxDiscountAmount();
         dto.minOrderAmount = entity.getMinOrderAmount();
         dto.totalQuantity = entity.getTotalQuantity();
+        dto.stockStripes = entity.getStockStripes();
         dto.validFrom = entity.getValidFrom();
         dto.validUntil = entity.getValidUntil();
         return dto;
@@ -43,7 +46,7 @@ public class CouponTemplateCacheDto {
     @Builder
     private CouponTemplateCacheDto(Long id, Long partnerId, String name, CouponType couponType,
                                    BigDecimal discountValue, Integer maxDiscountAmount, Integer minOrderAmount,
-                                   Integer totalQuantity, LocalDateTime validFrom, LocalDateTime validUntil) {
+                                   Integer totalQuantity, Integer stockStripes, LocalDateTime validFrom, LocalDateTime validUntil) {
         this.id = id;
         this.partnerId = partnerId;
         this.name = name;
@@ -52,9 +55,32 @@ public class CouponTemplateCacheDto {
         this.maxDiscountAmount = maxDiscountAmount;
         this.minOrderAmount = minOrderAmount;
         this.totalQuantity = totalQuantity;
+        this.stockStripes = stockStripes;
         this.validFrom = validFrom;
         this.validUntil = validUntil;
     }
 
+    // 분할 수는 템플릿 생성 시점에 고정된 값을 그대로 씁니다. 수량에서 다시 계산하면 수량 증가 후 분할 배정이 바뀝니다.
+    public int stripeCount() {
+        if (totalQuantity == null || stockStripes == null || stockStripes < 1) {
+            return 1;
+        }
+        return stockStripes;
+    }
+
+    public boolean isApplicableTo(int orderAmount) {
+        return minOrderAmount == null || orderAmount >= minOrderAmount;
+    }
 
-}
\ No newline at end of file
+    // 정률 할인은 원 단위 미만을 버리고 최대 할인 금액으로 제한합니다. 할인액은 주문 금액을 넘지 않습니다.
+    public int calculateDiscount(int orderAmount) {
+        BigDecimal discount = couponType == CouponType.PERCENTAGE
+                ? BigDecimal.valueOf(orderAmount).multiply(discountValue).divide(BigDecimal.valueOf(100), 0, RoundingMode.DOWN)
+                : discountValue.setScale(0, RoundingMode.DOWN);
+
+        if (maxDiscountAmount != null) {
+            discount = discount.min(BigDecimal.valueOf(maxDiscountAmount));
+        }
+        return discount.min(BigDecimal.valueOf(orderAmount)).max(BigDecimal.ZERO).intValue();
+    }
+}
@@ -22,18 +22,20 @@ public class CouponTemplateCreateRequest {
     @Positive private Integer maxDiscountAmount;
     @NotNull @PositiveOrZero private Integer minOrderAmount;
     @Positive private Integer totalQuantity;
+    @Positive @Max(64) private Integer stockStripes;
     @NotNull @Future private LocalDateTime validFrom;
     @NotNull @Future private LocalDateTime validUntil;
 
     @Builder
     public CouponTemplateCreateRequest(String name, CouponType couponType,  BigDecimal discountValue, Integer maxDiscountAmount,
-                                       Integer minOrderAmount, Integer totalQuantity, LocalDateTime validFrom, LocalDateTime validUntil) {
+                                       Integer minOrderAmount, Integer totalQuantity, Integer stockStripes, LocalDateTime validFrom, LocalDateTime validUntil) {
         this.name = name;
         this.couponType = couponType;
         this.discountValue = discountValue;
         this.maxDiscountAmount = maxDiscountAmount;
         this.minOrderAmount = minOrderAmount;
         this.totalQuantity = totalQuantity;
+        this.stockStripes = stockStripes;
         this.validFrom = validFrom;
         this.validUntil = validUntil;
     }
@@ -0,0 +1,21 @@
+package com.example.b2bpoint.coupon.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CouponTemplateQuantityRequest {
+
+    @NotNull(message = "추가 수량은 필수입니다.")
+    @Positive(message = "추가 수량은 0보다 커야 합니다.")
+    private Integer additionalQuantity;
+
+    @Builder
+    public CouponTemplateQuantityRequest(Integer additionalQuantity) {
+        this.additionalQuantity = additionalQuantity;
+    }
+}
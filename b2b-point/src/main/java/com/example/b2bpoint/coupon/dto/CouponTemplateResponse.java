@@ -2,6 +2,8 @@ package com.example.b2bpoint.coupon.dto;
 
 import com.example.b2bpoint.coupon.domain.CouponTemplate;
 import com.example.b2bpoint.coupon.domain.CouponType;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -11,6 +13,8 @@ import java.time.LocalDateTime;
 @Getter
 public class CouponTemplateResponse {
 
+    // 시간순 64비트 ID 는 2^53 을 넘어 JavaScript 숫자로는 정확히 표현되지 않으므로 문자열로 내보냅니다.
+    @JsonSerialize(using = ToStringSerializer.class)
     private final Long id;
     private final Long partnerId;
     private final String name;
@@ -20,6 +24,7 @@ public class CouponTemplateResponse {
     private final Integer minOrderAmount;
     private final Integer totalQuantity;
     private final Integer issuedQuantity;
+    private final Integer stockStripes;
     private final LocalDateTime validFrom;
     private final LocalDateTime validUntil;
     private final LocalDateTime createdAt;
@@ -27,7 +32,7 @@ public class CouponTemplateResponse {
     @Builder
     private CouponTemplateResponse(Long id, Long partnerId, String name, CouponType couponType,
                                    BigDecimal discountValue, Integer maxDiscountAmount, Integer minOrderAmount,
-                                   Integer totalQuantity, Integer issuedQuantity,
+                                   Integer totalQuantity, Integer issuedQuantity, Integer stockStripes,
                                    LocalDateTime validFrom, LocalDateTime validUntil, LocalDateTime createdAt) {
         this.id = id;
         this.partnerId = partnerId;
@@ -38,6 +43,7 @@ public class CouponTemplateResponse {
         this.minOrderAmount = minOrderAmount;
         this.totalQuantity = totalQuantity;
         this.issuedQuantity = issuedQuantity;
+        this.stockStripes = stockStripes;
         this.validFrom = validFrom;
         this.validUntil = validUntil;
         this.createdAt = createdAt;
@@ -54,6 +60,7 @@ public class CouponTemplateResponse {
                 .minOrderAmount(couponTemplate.getMinOrderAmount())
                 .totalQuantity(couponTemplate.getTotalQuantity())
                 .issuedQuantity(couponTemplate.getIssuedQuantity())
+                .stockStripes(couponTemplate.getStockStripes())
                 .validFrom(couponTemplate.getValidFrom())
                 .validUntil(couponTemplate.getValidUntil())
                 .createdAt(couponTemplate.getCreatedAt())
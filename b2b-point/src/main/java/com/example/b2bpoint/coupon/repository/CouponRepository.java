@@ -1,14 +1,16 @@
 package com.example.b2bpoint.coupon.repository;
 
 import com.example.b2bpoint.coupon.domain.Coupon;
+import com.example.b2bpoint.coupon.domain.CouponStatus;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.util.List;
-
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +26,26 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     @Query("SELECT c FROM Coupon c WHERE c.code = :code")
     Optional<Coupon> findByCodeWithLock(@Param("code") String code);
 
+    Optional<Coupon> findByCode(String code);
+
+    // 사용 가능 여부 확인과 사용 처리를 한 문장으로 수행합니다. 조건에 맞지 않으면 0 을 반환합니다.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.status = :used, c.usedAt = :usedAt, c.updatedAt = :usedAt " +
+            "WHERE c.code = :code AND c.partnerId = :partnerId AND c.userId = :userId " +
+            "AND c.status = :available AND c.expiredAt > :usedAt")
+    int useIfAvailable(@Param("code") String code, @Param("partnerId") Long partnerId, @Param("userId") String userId,
+                       @Param("usedAt") LocalDateTime usedAt,
+                       @Param("available") CouponStatus available, @Param("used") CouponStatus used);
+
+    List<Coupon> findByCodeIn(Collection<String> codes);
+
+    // 여러 쿠폰을 한 문장으로 사용 처리합니다. 반환값이 codes 크기보다 작으면 일부가 조건을 만족하지 않은 것입니다.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.status = :used, c.usedAt = :usedAt, c.updatedAt = :usedAt " +
+            "WHERE c.code IN :codes AND c.partnerId = :partnerId AND c.userId = :userId " +
+            "AND c.status = :available AND c.expiredAt > :usedAt")
+    int useAllIfAvailable(@Param("codes") Collection<String> codes, @Param("partnerId") Long partnerId, @Param("userId") String userId,
+                          @Param("usedAt") LocalDateTime usedAt,
+                          @Param("available") CouponStatus available, @Param("used") CouponStatus used);
+
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -20,4 +21,12 @@ public interface CouponTemplateRepository extends JpaRepository<CouponTemplate,
     @Query("UPDATE CouponTemplate ct SET ct.issuedQuantity = ct.issuedQuantity + :issueCount WHERE ct.id = :templateId")
     void increaseIssuedQuantity(@Param("templateId") Long templateId, @Param("issueCount") int issueCount);
 
+    // 발급 수량을 실제 저장된 쿠폰 수로 맞춥니다. 카운트와 갱신이 한 문장이라 그 사이의 동시 발급을 덮어쓰지 않습니다.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE coupon_templates ct " +
+            "SET ct.issued_quantity = (SELECT COUNT(*) FROM coupons c WHERE c.coupon_template_id = ct.id) " +
+            "WHERE ct.id = :templateId", nativeQuery = true)
+    int reconcileIssuedQuantity(@Param("templateId") Long templateId);
+
 }
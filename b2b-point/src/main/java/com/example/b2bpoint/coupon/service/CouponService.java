@@ -2,26 +2,33 @@ package com.example.b2bpoint.coupon.service;
 
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
+import com.example.b2bpoint.coupon.application.CouponCodeGenerator;
 import com.example.b2bpoint.coupon.application.CouponIssueProducer;
+import com.example.b2bpoint.coupon.application.CouponIssueTicketStore;
 import com.example.b2bpoint.coupon.application.CouponReader;
+import com.example.b2bpoint.coupon.application.CouponSoldOutRegistry;
+import com.example.b2bpoint.coupon.application.CouponStockManager;
+import com.example.b2bpoint.coupon.application.CouponTemplateLoader;
 import com.example.b2bpoint.coupon.domain.Coupon;
+import com.example.b2bpoint.coupon.domain.CouponIssueResult;
+import com.example.b2bpoint.coupon.domain.CouponStatus;
 import com.example.b2bpoint.coupon.domain.CouponTemplate;
 import com.example.b2bpoint.coupon.dto.*;
 import com.example.b2bpoint.coupon.repository.CouponRepository;
 import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,14 +38,14 @@ public class CouponService {
     private final CouponTemplateRepository couponTemplateRepository;
     private final CouponRepository couponRepository;
 
-    private final StringRedisTemplate redisTemplate;
     private final CouponIssueProducer couponIssueProducer;
-    private final ObjectMapper objectMapper;
     private final CouponReader couponReader;
+    private final CouponTemplateLoader couponTemplateLoader;
+    private final CouponStockManager couponStockManager;
+    private final CouponSoldOutRegistry couponSoldOutRegistry;
+    private final CouponIssueTicketStore couponIssueTicketStore;
+    private final CouponCodeGenerator couponCodeGenerator;
 
-    private static final String COUPON_COUNT_KEY = "coupon:template:%d:count";
-    private static final String COUPON_USERS_KEY = "coupon:template:%d:users";
-    private static final String COUPON_TEMPLATE_KEY = "coupon:template:%d";
 
     @Transactional
     public CouponTemplateResponse createCouponTemplate(Long partnerId, CouponTemplateCreateRequest request){
@@ -54,6 +61,7 @@ public class CouponService {
                 .maxDiscountAmount(request.getMaxDiscountAmount())
                 .minOrderAmount(request.getMinOrderAmount())
                 .totalQuantity(request.getTotalQuantity())
+                .stockStripes(request.getStockStripes())
                 .validFrom(request.getValidFrom())
                 .validUntil(request.getValidUntil())
                 .build();
@@ -61,31 +69,26 @@ public class CouponService {
 
         CouponTemplate savedTemplate = couponTemplateRepository.save(couponTemplate);
 
-        CouponTemplateCacheDto cacheDto = CouponTemplateCacheDto.fromEntity(savedTemplate);
+        couponReader.cacheTemplate(savedTemplate);
 
-        try {
-            String cacheKey = String.format(COUPON_TEMPLATE_KEY, savedTemplate.getId());
-            String templateJson = objectMapper.writeValueAsString(cacheDto);
-
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime validFrom = savedTemplate.getValidFrom();
-            Duration ttl;
+        return CouponTemplateResponse.from(savedTemplate);
+    }
 
-            if (validFrom.isBefore(now)) {
-                ttl = Duration.ofDays(1);
-            } else {
-                Duration durationUntilValid = Duration.between(now, validFrom);
-                ttl = durationUntilValid.plusDays(1);
-            }
-            redisTemplate.opsForValue().set(cacheKey, templateJson, ttl);
-        } catch (JsonProcessingException e) {
-            log.error("쿠폰 템플릿 JSON 직렬화 실패. Template ID: {}", savedTemplate.getId(), e);
+    @Transactional
+    public CouponTemplateResponse increaseCouponTemplateQuantity(Long partnerId, Long templateId, CouponTemplateQuantityRequest request) {
+        CouponTemplate couponTemplate = couponTemplateRepository.findByIdWithLock(templateId)
+                .orElseThrow(() -> new CustomException(ErrorCode.COUPON_TEMPLATE_NOT_FOUND));
 
-            String cacheKey = String.format(COUPON_TEMPLATE_KEY, savedTemplate.getId());
-            redisTemplate.delete(cacheKey);
+        if (!couponTemplate.getPartnerId().equals(partnerId)) {
+            throw new CustomException(ErrorCode.FORBIDDEN_ACCESS);
         }
 
-        return CouponTemplateResponse.from(savedTemplate);
+        couponTemplate.increaseTotalQuantity(request.getAdditionalQuantity());
+
+        couponReader.cacheTemplate(couponTemplate);
+        couponSoldOutRegistry.clear(templateId);
+
+        return CouponTemplateResponse.from(couponTemplate);
     }
 
     public CouponResponse issueCoupon(Long partnerId, CouponIssueRequest request){
@@ -102,6 +105,7 @@ public class CouponService {
                 .partnerId(partnerId)
                 .userId(request.getUserId())
                 .couponTemplate(couponTemplate)
+                .code(couponCodeGenerator.generate())
                 .build();
 
         Coupon savedCoupon = couponRepository.save(coupon);
@@ -121,80 +125,66 @@ public class CouponService {
 
     }
 
+    public CouponIssueTicketResponse getIssueTicket(Long partnerId, String ticketId) {
+        return couponIssueTicketStore.find(partnerId, ticketId);
+    }
+
     public CouponIssueResponse issueCouponAsync(Long partnerId, CouponIssueRequest request) {
         Long templateId = request.getCouponTemplateId();
         String userId = request.getUserId();
 
-        CouponTemplateCacheDto couponTemplate=getCouponTemplateAvoidingStampede(templateId);
-        Integer totalQuantity = couponTemplate.getTotalQuantity();
+        CouponTemplateCacheDto couponTemplate=couponTemplateLoader.load(templateId);
 
+        // 다른 파트너가 소진 여부를 알아낼 수 없도록 파트너 확인 뒤에 소진 기록을 봅니다.
         validateCouponIssuance(partnerId, couponTemplate);
 
-
-        String countKey = String.format(COUPON_COUNT_KEY, templateId);
-        String usersKey = String.format(COUPON_USERS_KEY, templateId);
-
-        Long addedCount = redisTemplate.opsForSet().add(usersKey, userId);
-        if (addedCount == 0) {
-            throw new CustomException(ErrorCode.COUPON_ALREADY_ISSUED);
-            //return CouponIssueResult.fail(ErrorCode.COUPON_ALREADY_ISSUED);
+        if (couponSoldOutRegistry.isSoldOut(templateId) && !couponStockManager.hasLeasedStock(templateId)) {
+            throw new CustomException(ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
         }
 
-        Long currentCount = redisTemplate.opsForValue().increment(countKey);
 
-        if (currentCount > totalQuantity) {
-            redisTemplate.opsForSet().remove(usersKey, userId);
-
-            throw new CustomException(ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
-            //return CouponIssueResult.fail(ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
+        CouponIssueResult result = couponStockManager.reserve(couponTemplate, userId);
+        if (!result.isSuccess()) {
+            if (result == CouponIssueResult.SOLD_OUT) {
+                couponSoldOutRegistry.markSoldOut(templateId);
+            }
+            throw new CustomException(result.getErrorCode());
         }
 
         // --- 여기까지 통과하면 '성공 대상'으로 확정 ---
 
 
+        String ticketId = UUID.randomUUID().toString();
+        CouponIssueMessage message = new CouponIssueMessage(partnerId, templateId, userId, couponTemplate.getValidUntil(),
+                ticketId, couponCodeGenerator.generate());
         try {
-            couponIssueProducer.send(new CouponIssueMessage(partnerId, templateId, userId,couponTemplate.getValidUntil()));
+            if (couponIssueProducer.isAsync()) {
+                // 브로커가 nack 해 메시지가 확실히 전달되지 않은 경우에만 예약을 되돌립니다.
+                // 콜백은 confirm 콜백 스레드 풀에서 실행되므로 AMQP I/O 스레드를 막지 않습니다.
+                couponIssueProducer.sendAsync(message).whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("쿠폰 발급 메시지 전송 실패. 예약을 취소합니다. templateId: {}, userId: {}", templateId, userId, e);
+                        couponStockManager.release(couponTemplate, userId);
+                        couponIssueTicketStore.markFailed(List.of(message));
+                    }
+                });
+            } else {
+                couponIssueProducer.send(message);
+            }
         } catch (Exception e) {
 
-            redisTemplate.opsForValue().decrement(countKey);
-            redisTemplate.opsForSet().remove(usersKey, userId);
+            couponStockManager.release(couponTemplate, userId);
             throw new CustomException(ErrorCode.MESSAGING_SYSTEM_ERROR);
         }
         CouponIssueResponse response = CouponIssueResponse.builder()
                 .message("쿠폰이 성공적으로 발급되었습니다.")
+                .ticketId(ticketId)
                 .build();
 
         return response;
     }
 
 
-    private CouponTemplateCacheDto getCouponTemplateAvoidingStampede(Long templateId) {
-        CouponTemplateCacheDto dto = couponReader.findTemplateFromCache(templateId);
-        if (dto != null) {
-            return dto;
-        }
-
-        String lockKey = "lock:coupon:template:" + templateId;
-        try {
-            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, "locked", Duration.ofSeconds(5));
-
-            if (Boolean.TRUE.equals(acquired)) {
-
-                try {
-                    return couponReader.findTemplateFromDbAndCache(templateId);
-                } finally {
-                    redisTemplate.delete(lockKey);
-                }
-            } else {
-                Thread.sleep(100);
-                return getCouponTemplateAvoidingStampede(templateId);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Lock acquisition interrupted", e);
-        }
-    }
-
     public List<CouponResponse> getCoupons(Long partnerId, String userId) {
 
         List<Coupon> coupons=couponRepository.findCouponsWithTemplateByUserIdAndPartnerId(partnerId, userId);
@@ -207,19 +197,90 @@ public class CouponService {
 
     }
 
+    // 조건부 UPDATE 한 문장으로 사용 처리하므로 행 잠금을 기다리지 않습니다.
     @Transactional
     public CouponUseResponse useCoupon(Long partnerId, String userId, String couponCode) {
-        Coupon coupon = couponRepository.findByCodeWithLock(couponCode)
-                .orElseThrow(() -> new CustomException(ErrorCode.COUPON_NOT_FOUND));
-
-        coupon.use(partnerId, userId);
+        LocalDateTime usedAt = LocalDateTime.now();
+        int updated = couponRepository.useIfAvailable(couponCode, partnerId, userId, usedAt,
+                CouponStatus.AVAILABLE, CouponStatus.USED);
+        if (updated == 0) {
+            throw useFailure(partnerId, userId, couponCode);
+        }
 
         return CouponUseResponse.builder()
-                .couponCode(coupon.getCode())
-                .status(coupon.getStatus())
-                .usedAt(coupon.getUsedAt())
+                .couponCode(couponCode)
+                .status(CouponStatus.USED)
+                .usedAt(usedAt)
                 .build();
     }
 
+    // 할인 규칙은 캐시된 템플릿에서 읽으므로 쿠폰 수와 관계없이 DB 는 조회 한 번, UPDATE 한 번만 거칩니다.
+    // 하나라도 사용할 수 없으면 예외로 트랜잭션 전체가 롤백되어 어떤 쿠폰도 사용 처리되지 않습니다.
+    @Transactional
+    public CouponCheckoutResponse checkout(Long partnerId, CouponCheckoutRequest request) {
+        String userId = request.getUserId();
+        int orderAmount = request.getOrderAmount();
+        List<String> couponCodes = request.getCouponCodes();
+        if (new HashSet<>(couponCodes).size() != couponCodes.size()) {
+            throw new CustomException(ErrorCode.COUPON_CODE_DUPLICATED);
+        }
+
+        Map<String, Coupon> couponsByCode = couponRepository.findByCodeIn(couponCodes).stream()
+                .collect(Collectors.toMap(Coupon::getCode, Function.identity()));
+
+        // 쿠폰별 할인액은 주문 금액 기준으로 계산하고, 합계가 주문 금액을 넘지 않도록 남은 금액으로 제한합니다.
+        int remainingAmount = orderAmount;
+        List<CouponDiscountResponse> discounts = new ArrayList<>();
+        for (String couponCode : couponCodes) {
+            Coupon coupon = couponsByCode.get(couponCode);
+            if (coupon == null) {
+                throw new CustomException(ErrorCode.COUPON_NOT_FOUND);
+            }
+            coupon.verifyCanBeUsed(partnerId, userId);
+
+            CouponTemplateCacheDto template = couponTemplateLoader.load(coupon.getCouponTemplateId());
+            if (!template.isApplicableTo(orderAmount)) {
+                throw new CustomException(ErrorCode.COUPON_MIN_ORDER_AMOUNT_NOT_MET);
+            }
+
+            int discountAmount = Math.min(template.calculateDiscount(orderAmount), remainingAmount);
+            remainingAmount -= discountAmount;
+            discounts.add(CouponDiscountResponse.builder()
+                    .couponCode(couponCode)
+                    .couponTemplateId(template.getId())
+                    .couponName(template.getName())
+                    .couponType(template.getCouponType())
+                    .discountAmount(discountAmount)
+                    .build());
+        }
+
+        LocalDateTime usedAt = LocalDateTime.now();
+        int updated = couponRepository.useAllIfAvailable(couponCodes, partnerId, userId, usedAt,
+                CouponStatus.AVAILABLE, CouponStatus.USED);
+        if (updated != couponCodes.size()) {
+            // 조회 이후 다른 요청이 먼저 사용했거나 그 사이 만료된 경우입니다.
+            throw new CustomException(ErrorCode.COUPON_ALREADY_USED_OR_EXPIRED);
+        }
+
+        return CouponCheckoutResponse.builder()
+                .orderId(request.getOrderId())
+                .orderAmount(orderAmount)
+                .totalDiscountAmount(orderAmount - remainingAmount)
+                .paymentAmount(remainingAmount)
+                .usedAt(usedAt)
+                .coupons(discounts)
+                .build();
+    }
+
+    // 사용 처리에 실패한 경우에만 쿠폰을 조회해 실패 원인에 맞는 예외를 만듭니다.
+    private RuntimeException useFailure(Long partnerId, String userId, String couponCode) {
+        Coupon coupon = couponRepository.findByCode(couponCode)
+                .orElseThrow(() -> new CustomException(ErrorCode.COUPON_NOT_FOUND));
+
+        coupon.verifyCanBeUsed(partnerId, userId);
+        // 조회 시점에는 조건을 만족하더라도 UPDATE 시점에 이미 사용되었거나 만료된 경우입니다.
+        return new CustomException(ErrorCode.COUPON_ALREADY_USED_OR_EXPIRED);
+    }
+
 
 }
@@ -1,6 +1,7 @@
 package com.example.b2bpoint.point.domain;
 
 import com.example.b2bpoint.common.domain.BaseEntity;
+import com.example.b2bpoint.common.domain.SnowflakeId;
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
 import jakarta.persistence.*;
@@ -16,7 +17,7 @@ import lombok.NoArgsConstructor;
 public class PointWallet extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "partner_id", nullable = false)
@@ -0,0 +1,2 @@
+ALTER TABLE coupon_templates
+    ADD COLUMN stock_stripes INT NOT NULL DEFAULT 1 COMMENT '재고 카운터 분할 수 (1이면 단일 카운터)';
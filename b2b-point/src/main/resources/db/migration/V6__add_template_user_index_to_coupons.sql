@@ -0,0 +1,2 @@
+-- 블룸 필터가 "발급되었을 수 있음"으로 판단한 요청의 정확한 중복 확인에 사용됩니다.
+CREATE INDEX idx_coupons_template_user ON coupons (coupon_template_id, user_id);
@@ -0,0 +1,12 @@
+-- 같은 템플릿의 쿠폰은 사용자당 하나만 발급됩니다. 재전달/재처리로 생긴 중복은 가장 먼저 발급된 쿠폰만 남깁니다.
+DELETE c1
+FROM coupons c1
+         JOIN coupons c2
+              ON c1.coupon_template_id = c2.coupon_template_id
+                  AND c1.user_id = c2.user_id
+                  AND c1.id > c2.id;
+
+-- 외래 키(coupon_template_id)가 사용할 인덱스가 항상 남아 있도록 유니크 인덱스를 먼저 만든 뒤 기존 인덱스를 삭제합니다.
+CREATE UNIQUE INDEX uk_coupons_template_user ON coupons (coupon_template_id, user_id);
+
+DROP INDEX idx_coupons_template_user ON coupons;
@@ -0,0 +1,5 @@
+-- 쿠폰 코드는 ASCII(기존 UUID 36자, Base62 17자)만 사용합니다.
+-- 문자당 1바이트로 유니크 인덱스 키를 줄이고, 대소문자를 구분하는 Base62 코드가 서로 충돌하지 않도록 바이너리 collation 으로 비교합니다.
+-- 기존 UUID 코드는 고객에게 이미 발급되었으므로 값은 그대로 유지합니다.
+ALTER TABLE coupons
+    MODIFY COLUMN code VARCHAR(36) CHARACTER SET ascii COLLATE ascii_bin NOT NULL COMMENT '쿠폰 코드';
@@ -0,0 +1,9 @@
+-- 분할 수를 수량에서 계산하지 않고 저장된 값으로 고정합니다.
+-- 기존 템플릿은 지금까지 적용되던 값(LEAST(stock_stripes, total_quantity))으로 맞춥니다.
+UPDATE coupon_templates
+SET stock_stripes = 1
+WHERE total_quantity IS NULL AND stock_stripes <> 1;
+
+UPDATE coupon_templates
+SET stock_stripes = total_quantity
+WHERE total_quantity IS NOT NULL AND stock_stripes > total_quantity;
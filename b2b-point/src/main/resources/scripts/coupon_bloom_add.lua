@@ -0,0 +1,12 @@
+-- 블룸 필터 비트 확인 + 설정을 한 번의 호출로 처리
+-- KEYS[1] : 블룸 필터 비트맵 키
+-- ARGV    : 사용자 ID 로부터 계산된 비트 오프셋 목록
+-- return  : 1 = 모든 비트가 이미 설정됨 (이미 발급되었을 가능성 있음), 0 = 확실히 처음 보는 사용자
+
+local seen = 1
+for i = 1, #ARGV do
+    if redis.call('SETBIT', KEYS[1], ARGV[i], 1) == 0 then
+        seen = 0
+    end
+end
+return seen
@@ -0,0 +1,13 @@
+-- 발급 카운터를 최소값까지 올리는 원자 스크립트 (정합성 보정용, 내리지는 않음)
+-- KEYS[1] : coupon:template:{id}:count
+-- ARGV[1] : 최소값 (DB 에 저장된 쿠폰 수)
+-- return  : 올린 수량
+
+local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+local floor = tonumber(ARGV[1])
+if current >= floor then
+    return 0
+end
+
+redis.call('SET', KEYS[1], floor)
+return floor - current
@@ -0,0 +1,22 @@
+-- 선착순 쿠폰 발급 원자 스크립트 (중복 확인 + 재고 확인 + 예약을 한 번의 호출로 처리)
+-- KEYS[1] : coupon:template:{id}:users  (발급 사용자 SET)
+-- KEYS[2] : coupon:template:{id}:count  (발급 카운터)
+-- ARGV[1] : userId
+-- ARGV[2] : totalQuantity (-1 이면 무제한)
+-- return  : 1 = 발급 성공, 2 = 이미 발급, 3 = 수량 소진
+
+if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then
+    return 2
+end
+
+local limit = tonumber(ARGV[2])
+if limit >= 0 then
+    local issued = tonumber(redis.call('GET', KEYS[2]) or '0')
+    if issued >= limit then
+        return 3
+    end
+end
+
+redis.call('SADD', KEYS[1], ARGV[1])
+redis.call('INCR', KEYS[2])
+return 1
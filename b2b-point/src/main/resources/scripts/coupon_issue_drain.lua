@@ -0,0 +1,15 @@
+-- 발급 요청 버퍼에서 가장 오래된 요청을 최대 N개 꺼내 처리 중 리스트로 옮기는 원자 스크립트
+-- KEYS[1] : coupon:issue:requests            (LPUSH 로 적재되는 요청 버퍼)
+-- KEYS[2] : coupon:issue:requests:processing:{nodeId}
+-- ARGV[1] : 한 번에 옮길 최대 개수
+-- return  : 옮긴 요청 목록 (오래된 순)
+
+local items = redis.call('RPOP', KEYS[1], ARGV[1])
+if not items then
+    return {}
+end
+-- unpack 은 Lua 스택 한도(약 8000개)를 넘길 수 없으므로 나눠서 옮깁니다.
+for i = 1, #items, 1000 do
+    redis.call('RPUSH', KEYS[2], unpack(items, i, math.min(i + 999, #items)))
+end
+return items
@@ -0,0 +1,20 @@
+-- 하트비트가 끊긴 노드의 처리 중 리스트를 이 노드가 재처리할 회수 리스트로 옮기는 원자 스크립트
+-- 회수한 리스트는 이 노드의 처리 중 리스트와 합치지 않고 따로 두어, 청크 크기 단위로 나눠 재처리합니다.
+-- KEYS[1] : coupon:issue:requests:processing:{orphanNodeId}[:...]
+-- KEYS[2] : coupon:issue:requests:heartbeat:{orphanNodeId}
+-- KEYS[3] : coupon:issue:requests:processing:{nodeId}:{orphanNodeId}[:...]  (회수 리스트)
+-- KEYS[4] : coupon:issue:requests:attempts:{orphanNodeId}[:...]            (회수한 리스트의 실패 횟수)
+-- return  : 옮긴 요청 수 (소유 노드가 살아 있으면 -1)
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return -1
+end
+
+local size = redis.call('LLEN', KEYS[1])
+if size == 0 then
+    return 0
+end
+-- 청크 경계가 달라지므로 이전 노드의 실패 횟수는 이어받지 않습니다.
+redis.call('RENAME', KEYS[1], KEYS[3])
+redis.call('DEL', KEYS[4])
+return size
@@ -0,0 +1,11 @@
+-- 발급 예약 보상 스크립트 (메시지 전송 실패 시 SREM + DECR 을 한 번의 호출로 처리)
+-- KEYS[1] : coupon:template:{id}:users
+-- KEYS[2] : coupon:template:{id}:count
+-- ARGV[1] : userId
+-- return  : 1 = 보상 완료, 0 = 예약 내역 없음
+
+if redis.call('SREM', KEYS[1], ARGV[1]) == 1 then
+    redis.call('DECR', KEYS[2])
+    return 1
+end
+return 0
@@ -0,0 +1,17 @@
+-- 상한이 있는 재고 카운터에서 요청 수량만큼 (가능한 만큼) 확보하는 스크립트
+-- KEYS[1] : 재고 카운터 키
+-- ARGV[1] : 카운터 상한 (할당량)
+-- ARGV[2] : 확보할 수량
+-- return  : 실제로 확보한 수량 (0 이면 소진)
+
+local limit = tonumber(ARGV[1])
+local requested = tonumber(ARGV[2])
+local issued = tonumber(redis.call('GET', KEYS[1]) or '0')
+
+local granted = math.min(requested, limit - issued)
+if granted <= 0 then
+    return 0
+end
+
+redis.call('INCRBY', KEYS[1], granted)
+return granted
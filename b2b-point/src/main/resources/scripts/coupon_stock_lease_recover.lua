@@ -0,0 +1,12 @@
+-- 하트비트가 끊긴 노드의 임차 기록을 가져가는 원자 스크립트 (한 노드만 가져가도록 읽고 바로 삭제)
+-- KEYS[1] : coupon:stock:lease:{orphanNodeId}
+-- KEYS[2] : coupon:stock:lease:{orphanNodeId}:heartbeat
+-- return  : 소유 노드가 살아 있으면 빈 목록, 아니면 필드와 수량을 번갈아 담은 목록
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return {}
+end
+
+local entries = redis.call('HGETALL', KEYS[1])
+redis.call('DEL', KEYS[1])
+return entries
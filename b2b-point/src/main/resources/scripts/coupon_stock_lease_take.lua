@@ -0,0 +1,22 @@
+-- 노드가 Redis 에 기록해 둔 임차 재고에서 수량을 꺼내는 스크립트
+-- 다른 노드가 이미 회수한 기록은 남아 있는 만큼만 꺼낼 수 있으므로 같은 재고가 두 번 쓰이지 않습니다.
+-- KEYS[1] : coupon:stock:lease:{nodeId}
+-- ARGV[1] : 필드 (templateId:stripes)
+-- ARGV[2] : 꺼낼 수량 (-1 이면 전부)
+-- return  : 실제로 꺼낸 수량
+
+local recorded = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0')
+local requested = tonumber(ARGV[2])
+if requested < 0 or requested > recorded then
+    requested = recorded
+end
+if requested <= 0 then
+    return 0
+end
+
+if requested == recorded then
+    redis.call('HDEL', KEYS[1], ARGV[1])
+else
+    redis.call('HINCRBY', KEYS[1], ARGV[1], -requested)
+end
+return requested
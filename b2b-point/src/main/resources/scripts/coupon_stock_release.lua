@@ -0,0 +1,15 @@
+-- 재고 카운터에 확보했던 수량을 반납하는 스크립트 (카운터가 음수가 되지 않도록 보정)
+-- KEYS[1] : 재고 카운터 키
+-- ARGV[1] : 반납할 수량
+-- return  : 실제로 반납한 수량
+
+local requested = tonumber(ARGV[1])
+local issued = tonumber(redis.call('GET', KEYS[1]) or '0')
+
+local released = math.min(requested, issued)
+if released <= 0 then
+    return 0
+end
+
+redis.call('DECRBY', KEYS[1], released)
+return released
@@ -0,0 +1,63 @@
+package com.example.b2bpoint.common.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+
+    @Test
+    @DisplayName("ID 는 양수이며 생성 순서대로 증가하고 노드 ID 를 포함한다")
+    void idsIncreaseAndEncodeNode() {
+        List<Long> ids = IntStream.range(0, 50_000).mapToObj(i -> generator.nextId()).toList();
+
+        assertThat(ids).allMatch(id -> id > 0);
+        assertThat(ids).isSorted();
+        assertThat(Set.copyOf(ids)).hasSize(ids.size());
+        assertThat((ids.get(0) >>> 12) & ((1 << SnowflakeIdGenerator.NODE_BITS) - 1)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 생성해도 ID 가 겹치지 않는다")
+    void idsAreUniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = IntStream.range(0, threads)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                        for (int j = 0; j < perThread; j++) {
+                            ids.add(generator.nextId());
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("노드 ID 범위를 벗어나면 예외가 발생한다")
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1 << SnowflakeIdGenerator.NODE_BITS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveDrainPolicyTest {
+
+    private final AdaptiveDrainPolicy policy = new AdaptiveDrainPolicy(1000, 100, 10000, 1100, 100, 5000);
+
+    @Test
+    @DisplayName("청크 저장 시간이 목표 지연 안에 들어오도록 청크 크기를 조정한다")
+    void chunkSizeFollowsInsertLatency() {
+        // 메시지당 0.5ms -> 1000ms 예산이면 2000개
+        policy.recordInsert(1000, 500);
+        assertThat(policy.chunkSize()).isEqualTo(2000);
+
+        // 매우 느린 저장은 최소 크기로, 매우 빠른 저장은 최대 크기로 제한한다
+        for (int i = 0; i < 20; i++) {
+            policy.recordInsert(100, 10_000);
+        }
+        assertThat(policy.chunkSize()).isEqualTo(100);
+
+        for (int i = 0; i < 40; i++) {
+            policy.recordInsert(10_000, 1);
+        }
+        assertThat(policy.chunkSize()).isEqualTo(10000);
+    }
+
+    @Test
+    @DisplayName("적체가 없으면 실행 간격을 두 배씩 늘리고, 적체가 생기면 최소 간격으로 돌아온다")
+    void intervalBacksOffWhenIdle() {
+        policy.recordRun(false, 0);
+        assertThat(policy.intervalMs()).isEqualTo(200);
+
+        for (int i = 0; i < 10; i++) {
+            policy.recordRun(false, 0);
+        }
+        assertThat(policy.intervalMs()).isEqualTo(5000);
+
+        policy.recordRun(false, 42);
+        assertThat(policy.intervalMs()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("청크 저장이 실패하면 적체가 있어도 실패 횟수만큼 간격을 늘리고, 저장에 성공하면 최소 간격으로 돌아온다")
+    void intervalBacksOffOnFailure() {
+        policy.recordFailure();
+        policy.recordRun(false, 10_000);
+        assertThat(policy.intervalMs()).isEqualTo(200);
+
+        policy.recordFailure();
+        policy.recordRun(false, 10_000);
+        assertThat(policy.intervalMs()).isEqualTo(400);
+
+        for (int i = 0; i < 30; i++) {
+            policy.recordFailure();
+        }
+        policy.recordRun(false, 10_000);
+        assertThat(policy.intervalMs()).isEqualTo(5000);
+
+        policy.recordInsert(1000, 500);
+        policy.recordRun(true, 10_000);
+        assertThat(policy.intervalMs()).isEqualTo(100);
+    }
+}
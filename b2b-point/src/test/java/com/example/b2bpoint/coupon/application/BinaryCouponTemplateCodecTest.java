@@ -0,0 +1,70 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponType;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCouponTemplateCodecTest {
+
+    private final BinaryCouponTemplateCodec binaryCodec = new BinaryCouponTemplateCodec();
+    private final JsonCouponTemplateCodec jsonCodec =
+            new JsonCouponTemplateCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private final CouponTemplateCacheDto template = CouponTemplateCacheDto.builder()
+            .id(42L).partnerId(7L).name("신규 가입 10% 할인").couponType(CouponType.PERCENTAGE)
+            .discountValue(new BigDecimal("10.50")).maxDiscountAmount(5000).minOrderAmount(10000)
+            .totalQuantity(1000).stockStripes(8)
+            .validFrom(LocalDateTime.of(2024, 1, 1, 0, 0)).validUntil(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 123_000_000))
+            .build();
+
+    @Test
+    @DisplayName("성공: 바이너리로 인코딩한 템플릿을 그대로 복원하며 JSON보다 작다.")
+    void roundTrip() {
+        // when
+        byte[] encoded = binaryCodec.encode(template);
+        CouponTemplateCacheDto decoded = binaryCodec.decode(encoded);
+
+        // then
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(template);
+        assertThat(encoded.length).isLessThan(jsonCodec.encode(template).length);
+    }
+
+    @Test
+    @DisplayName("성공: null 필드는 비트마스크로 생략되고 null로 복원된다.")
+    void roundTrip_withNullFields() {
+        // given
+        CouponTemplateCacheDto unlimited = CouponTemplateCacheDto.builder()
+                .id(1L).partnerId(1L).name("무제한").couponType(CouponType.FIXED_AMOUNT)
+                .discountValue(BigDecimal.TEN).minOrderAmount(0)
+                .validFrom(LocalDateTime.of(2024, 1, 1, 0, 0)).validUntil(LocalDateTime.of(2024, 2, 1, 0, 0))
+                .build();
+
+        // when
+        CouponTemplateCacheDto decoded = binaryCodec.decode(binaryCodec.encode(unlimited));
+
+        // then
+        assertThat(decoded.getTotalQuantity()).isNull();
+        assertThat(decoded.getMaxDiscountAmount()).isNull();
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(unlimited);
+    }
+
+    @Test
+    @DisplayName("성공: 각 코덱은 자신의 형식만 판별한다.")
+    void supports() {
+        byte[] binary = binaryCodec.encode(template);
+        byte[] json = jsonCodec.encode(template);
+
+        assertThat(binaryCodec.supports(binary)).isTrue();
+        assertThat(binaryCodec.supports(json)).isFalse();
+        assertThat(jsonCodec.supports(json)).isTrue();
+        assertThat(jsonCodec.supports(binary)).isFalse();
+    }
+}
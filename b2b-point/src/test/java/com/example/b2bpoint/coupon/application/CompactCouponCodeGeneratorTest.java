@@ -0,0 +1,74 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.config.NodeIdentity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCouponCodeGeneratorTest {
+
+    private final CompactCouponCodeGenerator generator = new CompactCouponCodeGenerator(7);
+
+    @Test
+    @DisplayName("96비트 값을 고정 길이 17자 Base62 로 인코딩한다")
+    void encodesFixedWidthBase62() {
+        assertThat(CompactCouponCodeGenerator.encode(0, 0)).isEqualTo("00000000000000000");
+        assertThat(CompactCouponCodeGenerator.encode(0, 61)).isEqualTo("0000000000000000z");
+        assertThat(CompactCouponCodeGenerator.encode(0, 62)).isEqualTo("00000000000000010");
+        assertThat(CompactCouponCodeGenerator.encode(0xFFFFFFFFL, -1L)).hasSize(CompactCouponCodeGenerator.CODE_LENGTH);
+    }
+
+    @Test
+    @DisplayName("한 스레드에서 생성한 코드는 사전순으로 증가한다")
+    void codesIncreaseWithinThread() {
+        List<String> codes = IntStream.range(0, 10_000).mapToObj(i -> generator.generate()).toList();
+
+        assertThat(codes).allMatch(code -> code.length() == CompactCouponCodeGenerator.CODE_LENGTH);
+        assertThat(codes).isSorted();
+        assertThat(Set.copyOf(codes)).hasSize(codes.size());
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 생성해도 코드가 겹치지 않는다")
+    void codesAreUniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = IntStream.range(0, threads)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                        for (int j = 0; j < perThread; j++) {
+                            codes.add(generator.generate());
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(codes).hasSize(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("노드 ID 가 설정되지 않았거나 범위를 벗어나면 임의 값 대신 기동에 실패한다")
+    void rejectsMissingNodeId() {
+        assertThatThrownBy(() -> new NodeIdentity(-1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new NodeIdentity(NodeIdentity.MAX_NODE_ID + 1)).isInstanceOf(IllegalStateException.class);
+        assertThat(new CompactCouponCodeGenerator(new NodeIdentity(7)).generate())
+                .hasSize(CompactCouponCodeGenerator.CODE_LENGTH);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CouponIssueBatchConsumerTest {
+
+    private final Jackson2JsonMessageConverter converter =
+            new Jackson2JsonMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule()));
+    private final CouponIssueSyncService couponIssueSyncService = mock(CouponIssueSyncService.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final CouponIssueTicketStore couponIssueTicketStore = mock(CouponIssueTicketStore.class);
+
+    private final CouponIssueBatchConsumer consumer =
+            new CouponIssueBatchConsumer(couponIssueSyncService, converter, rabbitTemplate, couponIssueTicketStore);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(consumer, "backoffMs", 1L);
+        consumer.init();
+    }
+
+    @Test
+    @DisplayName("성공: 단건 메시지와 묶음 메시지를 펼쳐 한 번의 배치로 저장한다.")
+    void receive_flattensBatches() {
+        // given
+        Message single = toMessage(new CouponIssueMessage(1L, 5L, "user-1", LocalDateTime.now()));
+        Message batch = toMessage(new CouponIssueBatchMessage(List.of(
+                new CouponIssueMessage(1L, 5L, "user-2", LocalDateTime.now()),
+                new CouponIssueMessage(1L, 5L, "user-3", LocalDateTime.now()))));
+
+        // when
+        consumer.receive(List.of(single, batch));
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 3));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("실패: 변환할 수 없는 메시지만 DLQ로 보내고 나머지는 저장한다.")
+    void receive_sendsPoisonMessageToDlq() {
+        // given
+        Message poison = new Message("not-json".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        Message valid = toMessage(new CouponIssueMessage(1L, 5L, "user-1", LocalDateTime.now()));
+
+        // when
+        consumer.receive(List.of(poison, valid));
+
+        // then
+        verify(rabbitTemplate).send(eq("coupon.exchange.dlx"), eq("dead.letter"), eq(poison));
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+    }
+
+    @Test
+    @DisplayName("성공: 일시적인 DB 오류는 재시도해서 저장한다.")
+    void receive_retriesTransientFailure() {
+        // given
+        doThrow(new CannotAcquireLockException("deadlock")).doReturn(List.of())
+                .when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+        Message valid = toMessage(new CouponIssueMessage(1L, 5L, "user-1", LocalDateTime.now()));
+
+        // when
+        consumer.receive(List.of(valid));
+
+        // then
+        verify(couponIssueSyncService, times(2)).issueCouponsAndUpdateQuantityInBatch(anyList());
+        verifyNoInteractions(rabbitTemplate, couponIssueTicketStore);
+    }
+
+    @Test
+    @DisplayName("실패: 일시적인 DB 오류가 재시도 한도를 넘으면 배치를 DLQ 가 아닌 큐로 되돌린다.")
+    void receive_requeuesWhenTransientFailurePersists() {
+        // given
+        doThrow(new CannotAcquireLockException("deadlock"))
+                .when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+        Message valid = toMessage(new CouponIssueMessage(1L, 5L, "user-1", LocalDateTime.now()));
+
+        // when & then
+        assertThrows(ImmediateRequeueAmqpException.class, () -> consumer.receive(List.of(valid)));
+        verify(couponIssueSyncService, times(3)).issueCouponsAndUpdateQuantityInBatch(anyList());
+        verifyNoInteractions(rabbitTemplate, couponIssueTicketStore);
+    }
+
+    @Test
+    @DisplayName("실패: 배치 저장이 실패하면 메시지별로 다시 저장하고, 실패한 메시지만 DLQ로 보낸다.")
+    void receive_deadLettersOnlyOffendingMessage() {
+        // given
+        CouponIssueMessage poison = new CouponIssueMessage(1L, 5L, "user-1", null);
+        CouponIssueMessage valid = new CouponIssueMessage(1L, 5L, "user-2", LocalDateTime.now());
+        doThrow(new IllegalArgumentException("validUntil 없음")).when(couponIssueSyncService)
+                .issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.stream()
+                        .anyMatch(message -> message.getValidUntil() == null)));
+
+        // when
+        consumer.receive(List.of(toMessage(poison), toMessage(valid)));
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(
+                argThat(messages -> messages.size() == 1 && messages.get(0).getUserId().equals("user-2")));
+        verify(rabbitTemplate).convertAndSend(eq("coupon.exchange.dlx"), eq("dead.letter"),
+                argThat((Object message) -> ((CouponIssueMessage) message).getUserId().equals("user-1")));
+        verify(couponIssueTicketStore).markFailed(argThat(messages -> messages.size() == 1
+                && messages.get(0).getUserId().equals("user-1")));
+    }
+
+    @Test
+    @DisplayName("실패: 변환할 수 없는 메시지를 DLQ로 보내지 못하면 나머지를 저장한 뒤 배치를 큐로 되돌린다.")
+    void receive_requeuesWhenDeadLetterSendFails() {
+        // given
+        Message poison = new Message("not-json".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        Message valid = toMessage(new CouponIssueMessage(1L, 5L, "user-1", LocalDateTime.now()));
+        doThrow(new AmqpConnectException(new RuntimeException("broker down")))
+                .when(rabbitTemplate).send(eq("coupon.exchange.dlx"), eq("dead.letter"), eq(poison));
+
+        // when & then
+        assertThrows(ImmediateRequeueAmqpException.class, () -> consumer.receive(List.of(poison, valid)));
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+    }
+
+    private Message toMessage(Object payload) {
+        return converter.toMessage(payload, new MessageProperties());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+// BATCH 모드 프로듀서가 보낸 봉투 메시지를 CouponIssueConsumer 가 버퍼에 적재하는 동작
+class CouponIssueBatchEnvelopeConsumerTest {
+
+    private final CouponIssueBuffer couponIssueBuffer = mock(CouponIssueBuffer.class);
+    private final CouponIssueTicketStore couponIssueTicketStore = mock(CouponIssueTicketStore.class);
+    private final CouponIssueConsumer consumer =
+            new CouponIssueConsumer(mock(CouponIssueSyncService.class), couponIssueBuffer, couponIssueTicketStore);
+
+    @Test
+    @DisplayName("봉투에 담긴 메시지는 한 번의 호출로 순서대로 버퍼에 적재된다")
+    void receiveBatch_appendsEnvelopeAtOnce() throws Exception {
+        // given
+        List<CouponIssueMessage> messages = List.of(message("user-1"), message("user-2"), message("user-3"));
+
+        // when
+        consumer.receiveBatch(new CouponIssueBatchMessage(messages));
+
+        // then
+        verify(couponIssueBuffer, times(1)).append(messages);
+    }
+
+    @Test
+    @DisplayName("버퍼 적재에 실패하면 봉투를 재전송하지 않고 DLQ 로 보낸다")
+    void receiveBatch_rejectsEnvelopeOnBufferFailure() throws Exception {
+        // given
+        doThrow(new IllegalStateException("redis down")).when(couponIssueBuffer).append(anyList());
+
+        // when & then
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> consumer.receiveBatch(new CouponIssueBatchMessage(List.of(message("user-1")))));
+        verify(couponIssueTicketStore).markFailed(argThat(failed -> failed.size() == 1));
+    }
+
+    private CouponIssueMessage message(String userId) {
+        return new CouponIssueMessage(1L, 1L, userId, LocalDateTime.now().plusDays(1));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.common.exception.CustomException;
+import com.example.b2bpoint.coupon.dto.CouponIssueBatchMessage;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CouponIssueBatchPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final List<CouponIssueBatchMessage> batches = new CopyOnWriteArrayList<>();
+    private final List<CorrelationData> confirms = new CopyOnWriteArrayList<>();
+
+    private CouponIssueBatchPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            batches.add(invocation.getArgument(2));
+            confirms.add(invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        publisher = new CouponIssueBatchPublisher(rabbitTemplate);
+        ReflectionTestUtils.setField(publisher, "batchSize", 3);
+        ReflectionTestUtils.setField(publisher, "lingerMs", 50L);
+        ReflectionTestUtils.setField(publisher, "maxInFlight", 3);
+        ReflectionTestUtils.setField(publisher, "inFlightWaitMs", 10L);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMs", 300L);
+        ReflectionTestUtils.setField(publisher, "callbackThreads", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    @DisplayName("linger-ms 안에 들어온 메시지는 하나의 배치 봉투로 전송된다")
+    void send_coalescesWithinLinger() {
+        // given
+        publisher.start();
+
+        // when
+        publisher.send(message("t-1"));
+        publisher.send(message("t-2"));
+
+        // then
+        await().atMost(1, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+        assertThat(batches.get(0).getMessages()).extracting(CouponIssueMessage::getTicketId)
+                .containsExactly("t-1", "t-2");
+    }
+
+    @Test
+    @DisplayName("batch-size 에 도달하면 linger-ms 를 기다리지 않고 바로 전송한다")
+    void send_flushesWhenBatchIsFull() {
+        // given
+        ReflectionTestUtils.setField(publisher, "lingerMs", 10_000L);
+        publisher.start();
+
+        // when
+        publisher.send(message("t-1"));
+        publisher.send(message("t-2"));
+        publisher.send(message("t-3"));
+
+        // then
+        await().atMost(1, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+        assertThat(batches.get(0).getMessages()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("브로커가 배치를 nack 하면 모든 메시지의 future 가 예외로 완료되고 미확인 자리를 반납한다")
+    void nack_failsEveryMessageAndReleasesInFlight() {
+        // given
+        publisher.start();
+        CompletableFuture<Void> first = publisher.send(message("t-1"));
+        CompletableFuture<Void> second = publisher.send(message("t-2"));
+        await().atMost(1, TimeUnit.SECONDS).until(() -> confirms.size() == 1);
+
+        // when
+        confirms.get(0).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        // then
+        for (CompletableFuture<Void> future : List.of(first, second)) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+            assertThat(exception.getCause()).isInstanceOf(AmqpException.class);
+        }
+        publisher.send(message("t-3"));
+        publisher.send(message("t-4"));
+        publisher.send(message("t-5"));
+    }
+
+    @Test
+    @DisplayName("확인 시간이 초과되면 예약을 유지하도록 정상 완료하고 미확인 자리를 반납한다")
+    void confirmTimeout_completesNormallyAndReleasesInFlight() throws Exception {
+        // given
+        publisher.start();
+        CompletableFuture<Void> future = publisher.send(message("t-1"));
+
+        // when & then
+        future.get(1, TimeUnit.SECONDS);
+        assertThat(future).isNotCompletedExceptionally();
+        publisher.send(message("t-2"));
+        publisher.send(message("t-3"));
+        publisher.send(message("t-4"));
+    }
+
+    @Test
+    @DisplayName("미확인 메시지가 max-in-flight 에 도달하면 기다리지 않고 거절한다")
+    void send_rejectsWhenInFlightIsFull() {
+        // given
+        publisher.start();
+        publisher.send(message("t-1"));
+        publisher.send(message("t-2"));
+        publisher.send(message("t-3"));
+
+        // when & then
+        assertThrows(CustomException.class, () -> publisher.send(message("t-4")));
+    }
+
+    private CouponIssueMessage message(String ticketId) {
+        return new CouponIssueMessage(1L, 1L, "user-" + ticketId, LocalDateTime.now().plusDays(1), ticketId, "CODE-" + ticketId);
+    }
+}
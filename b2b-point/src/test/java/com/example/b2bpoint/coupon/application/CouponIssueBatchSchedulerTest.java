@@ -0,0 +1,218 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueBatchSchedulerTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ListOperations<String, String> listOperations;
+    @Mock private ValueOperations<String, String> valueOperations;
+    @Mock private CouponIssueSyncService couponIssueSyncService;
+    @Mock private CouponIssueTicketStore couponIssueTicketStore;
+
+    private CouponIssueBatchScheduler scheduler;
+
+    private static final String PROCESSING_KEY_PREFIX = "coupon:issue:requests:processing:";
+    private static final String MESSAGE_JSON =
+            "{\"partnerId\":1,\"couponTemplateId\":5,\"userId\":\"user-1\",\"validUntil\":\"2030-01-01T00:00:00\"}";
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new CouponIssueBatchScheduler(redisTemplate, couponIssueSyncService,
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), couponIssueTicketStore);
+        ReflectionTestUtils.setField(scheduler, "initialChunkSize", 2);
+        ReflectionTestUtils.setField(scheduler, "minChunkSize", 2);
+        ReflectionTestUtils.setField(scheduler, "maxChunkSize", 2);
+        ReflectionTestUtils.setField(scheduler, "targetDelayMs", 1000L);
+        ReflectionTestUtils.setField(scheduler, "minIntervalMs", 100L);
+        ReflectionTestUtils.setField(scheduler, "maxIntervalMs", 5000L);
+        ReflectionTestUtils.setField(scheduler, "heartbeatTtlMs", 30000L);
+        ReflectionTestUtils.setField(scheduler, "recoveryIntervalMs", 60000L);
+        ReflectionTestUtils.setField(scheduler, "maxAttempts", 3);
+        scheduler.init();
+        given(redisTemplate.opsForList()).willReturn(listOperations);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("성공: 버퍼가 빌 때까지 청크 단위로 꺼내 저장하고 커밋된 청크만 삭제한다.")
+    void drainsInChunks() {
+        // given
+        given(listOperations.range(anyString(), eq(0L), eq(-1L))).willReturn(List.of());
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), eq("2")))
+                .willReturn(List.of(MESSAGE_JSON, MESSAGE_JSON), List.of(MESSAGE_JSON));
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 2));
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+        verify(redisTemplate, times(2)).delete(List.of(processingKey(), attemptsKey()));
+    }
+
+    @Test
+    @DisplayName("실패: 저장에 실패한 청크는 시도 횟수를 기록하고 처리 중 리스트에 남기며 더 꺼내지 않는다.")
+    void keepsChunkWhenSyncFails() {
+        // given
+        given(listOperations.range(anyString(), eq(0L), eq(-1L))).willReturn(List.of(MESSAGE_JSON));
+        given(valueOperations.increment(attemptsKey())).willReturn(1L);
+        doThrow(new RuntimeException("DB 오류")).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(redisTemplate, never()).delete(anyCollection());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+        verifyNoInteractions(couponIssueTicketStore);
+        assertThat(((AdaptiveDrainPolicy) ReflectionTestUtils.getField(scheduler, "policy")).intervalMs()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("실패: 일시적인 DB 오류는 시도 횟수에 넣지 않고 청크를 그대로 남긴다.")
+    void transientFailureDoesNotCountAttempt() {
+        // given
+        given(listOperations.range(anyString(), eq(0L), eq(-1L))).willReturn(List.of(MESSAGE_JSON));
+        doThrow(new CannotAcquireLockException("deadlock"))
+                .when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(valueOperations, never()).increment(anyString());
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    @DisplayName("성공: 한도만큼 실패한 청크는 나눠 저장하고 혼자서도 실패하는 요청만 데드레터로 옮긴 뒤 계속 꺼낸다.")
+    @SuppressWarnings("unchecked")
+    void isolatesPoisonMessageAfterMaxAttempts() {
+        // given
+        String poison = "{\"partnerId\":1,\"couponTemplateId\":5,\"userId\":\"poison\",\"validUntil\":null}";
+        given(listOperations.range(anyString(), eq(0L), eq(-1L))).willReturn(List.of(MESSAGE_JSON, poison, MESSAGE_JSON));
+        given(valueOperations.increment(attemptsKey())).willReturn(3L);
+        doAnswer(invocation -> {
+            List<CouponIssueMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getValidUntil() == null)) {
+                throw new IllegalArgumentException("validUntil 없음");
+            }
+            return null;
+        }).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), eq("2"))).willReturn(List.of());
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(couponIssueSyncService, times(2)).issueCouponsAndUpdateQuantityInBatch(
+                argThat(messages -> messages.size() == 1 && messages.get(0).getValidUntil() != null));
+        verify(listOperations).leftPushAll(eq(CouponIssueBatchScheduler.DEAD_LETTER_KEY),
+                (Collection<String>) argThat((Collection<String> entries) -> entries.size() == 1
+                        && entries.iterator().next().contains("poison")
+                        && entries.iterator().next().contains("IllegalArgumentException")));
+        verify(couponIssueTicketStore).markFailed(argThat(messages -> messages.size() == 1
+                && messages.get(0).getUserId().equals("poison")));
+        verify(redisTemplate).delete(List.of(processingKey(), attemptsKey()));
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), eq("2"));
+    }
+
+    @Test
+    @DisplayName("성공: 하트비트가 끊긴 노드의 처리 중 리스트를 따로 회수해 청크 크기 단위로 재처리한다.")
+    void recoversOrphanedProcessingList() {
+        // given
+        String recoveredKey = willRecoverOrphan(3L);
+        given(listOperations.range(recoveredKey, 0, 1))
+                .willReturn(List.of(MESSAGE_JSON, MESSAGE_JSON), List.of(MESSAGE_JSON));
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), eq("2"))).willReturn(List.of());
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 2));
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+        verify(listOperations).trim(recoveredKey, 2, -1);
+        verify(listOperations).trim(recoveredKey, 1, -1);
+    }
+
+    @Test
+    @DisplayName("실패: 회수한 청크가 실패해도 회수 리스트에 남겨 자기 실패 횟수로 관리하고, 이 노드의 요청 버퍼 처리는 계속한다.")
+    void failedRecoveredChunkDoesNotBlockDrain() {
+        // given
+        String recoveredKey = willRecoverOrphan(2L);
+        String recoveredAttemptsKey = "coupon:issue:requests:attempts:" + recoveredKey.substring(PROCESSING_KEY_PREFIX.length());
+        given(listOperations.range(recoveredKey, 0, 1)).willReturn(List.of(MESSAGE_JSON, MESSAGE_JSON));
+        given(valueOperations.increment(recoveredAttemptsKey)).willReturn(1L);
+        doAnswer(invocation -> {
+            List<CouponIssueMessage> messages = invocation.getArgument(0);
+            if (messages.size() == 2) {
+                throw new IllegalStateException("poison");
+            }
+            return null;
+        }).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), eq("2"))).willReturn(List.of(MESSAGE_JSON));
+
+        // when
+        scheduler.processCouponIssueRequests();
+
+        // then
+        verify(listOperations, never()).trim(eq(recoveredKey), anyLong(), anyLong());
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+        verify(redisTemplate).delete(List.of(processingKey(), attemptsKey()));
+    }
+
+    // dead-node 의 처리 중 리스트를 회수하도록 설정하고 회수 리스트 키를 반환합니다.
+    @SuppressWarnings("unchecked")
+    private String willRecoverOrphan(long size) {
+        ReflectionTestUtils.setField(scheduler, "nextRecoveryAt", 0L);
+        Cursor<String> cursor = mock(Cursor.class);
+        doCallRealMethod().when(cursor).forEachRemaining(any());
+        given(cursor.hasNext()).willReturn(true, true, false);
+        given(cursor.next()).willReturn(processingKey(), PROCESSING_KEY_PREFIX + "dead-node");
+        given(redisTemplate.scan(any(ScanOptions.class))).willReturn(cursor);
+        String recoveredKey = processingKey() + ":dead-node";
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(
+                PROCESSING_KEY_PREFIX + "dead-node",
+                "coupon:issue:requests:heartbeat:dead-node",
+                recoveredKey,
+                "coupon:issue:requests:attempts:dead-node"))))
+                .willReturn(size);
+        return recoveredKey;
+    }
+
+    private String processingKey() {
+        return (String) ReflectionTestUtils.getField(scheduler, "processingKey");
+    }
+
+    private String attemptsKey() {
+        return (String) ReflectionTestUtils.getField(scheduler, "attemptsKey");
+    }
+}
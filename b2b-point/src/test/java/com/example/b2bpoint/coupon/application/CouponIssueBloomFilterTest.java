@@ -0,0 +1,31 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponIssueBloomFilterTest {
+
+    @Test
+    @DisplayName("예상 삽입 수와 오탐률로 비트 수와 해시 수를 정한다")
+    void sizing() {
+        long bits = CouponIssueBloomFilter.bitSize(1_000_000, 0.01);
+
+        assertThat(bits).isBetween(9_585_000L, 9_586_000L);
+        assertThat(CouponIssueBloomFilter.hashCount(1_000_000, bits)).isEqualTo(7);
+        assertThat(CouponIssueBloomFilter.bitSize(Long.MAX_VALUE / 64, 0.0001)).isEqualTo(1L << 32);
+    }
+
+    @Test
+    @DisplayName("같은 사용자는 항상 같은 비트 위치를 가지며 위치는 비트맵 범위 안에 있다")
+    void offsetsAreStableAndInRange() {
+        String[] offsets = CouponIssueBloomFilter.offsets("user-123", 1_000, 7);
+
+        assertThat(offsets).hasSize(7);
+        assertThat(CouponIssueBloomFilter.offsets("user-123", 1_000, 7)).containsExactly(offsets);
+        assertThat(Arrays.stream(offsets).mapToLong(Long::parseLong)).allMatch(offset -> offset >= 0 && offset < 1_000);
+    }
+}
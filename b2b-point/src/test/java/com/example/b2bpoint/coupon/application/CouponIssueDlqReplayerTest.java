@@ -0,0 +1,181 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueDlqReplayReport;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueDlqReplayerTest {
+
+    @Mock private RabbitTemplate rabbitTemplate;
+    @Mock private MessageConverter messageConverter;
+    @Mock private CouponIssueSyncService couponIssueSyncService;
+    @Mock private Channel channel;
+
+    private CouponIssueDlqReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        replayer = new CouponIssueDlqReplayer(rabbitTemplate, messageConverter, couponIssueSyncService);
+        ReflectionTestUtils.setField(replayer, "batchSize", 2);
+        ReflectionTestUtils.setField(replayer, "ratePerSecond", 1000.0);
+        given(messageConverter.fromMessage(any(Message.class))).willAnswer(invocation -> {
+            String body = new String(((Message) invocation.getArgument(0)).getBody(), StandardCharsets.UTF_8);
+            if (body.equals("poison")) {
+                throw new MessageConversionException("변환 실패");
+            }
+            return new CouponIssueMessage(1L, 5L, body, LocalDateTime.now().plusDays(1));
+        });
+    }
+
+    @Test
+    @DisplayName("성공: 배치 단위로 저장한 뒤 ack 하고, 변환할 수 없는 메시지는 DLQ 로 되돌린다.")
+    void replaysInBatches() throws Exception {
+        // given
+        given(channel.basicGet("coupon.issue.dlq", false)).willReturn(
+                response(1, "user-1", "rejected"),
+                response(2, "user-2", "rejected"),
+                response(3, "poison", null),
+                response(4, "user-3", "expired"),
+                null);
+        willInsertAll();
+
+        // when
+        CouponIssueDlqReplayer.Progress progress = new CouponIssueDlqReplayer.Progress(Long.MAX_VALUE);
+        replayer.replay(channel, progress);
+
+        // then
+        verify(couponIssueSyncService, times(2)).issueCouponsAndUpdateQuantityInBatch(anyList());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(4, false);
+        verify(channel).basicNack(3, false, true);
+
+        CouponIssueDlqReplayReport report = progress.toReport();
+        assertThat(report.getReplayed()).isEqualTo(3);
+        assertThat(report.getAlreadyIssued()).isZero();
+        assertThat(report.getUnconvertible()).isEqualTo(1);
+        assertThat(report.getReplayedByReason()).containsEntry("rejected", 2L).containsEntry("expired", 1L);
+    }
+
+    @Test
+    @DisplayName("성공: 이미 저장되어 있어 새로 저장되지 않은 메시지는 ack 하되 재처리 건수에 넣지 않는다.")
+    void countsOnlyInsertedMessagesAsReplayed() throws Exception {
+        // given
+        given(channel.basicGet("coupon.issue.dlq", false)).willReturn(
+                response(1, "user-1", "rejected"),
+                response(2, "user-2", "rejected"),
+                response(3, "user-1", "rejected"),
+                null);
+        given(couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(anyList())).willAnswer(invocation ->
+                invocation.<List<CouponIssueMessage>>getArgument(0).stream()
+                        .filter(message -> message.getUserId().equals("user-1"))
+                        .toList())
+                .willReturn(List.of());
+
+        // when
+        CouponIssueDlqReplayer.Progress progress = new CouponIssueDlqReplayer.Progress(Long.MAX_VALUE);
+        replayer.replay(channel, progress);
+
+        // then
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+
+        CouponIssueDlqReplayReport report = progress.toReport();
+        assertThat(report.getReplayed()).isEqualTo(1);
+        assertThat(report.getAlreadyIssued()).isEqualTo(2);
+        assertThat(report.getReplayedByReason()).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    @DisplayName("실패: 일시적인 DB 오류로 저장에 실패하면 배치를 DLQ 로 되돌리고 중단한다.")
+    void requeuesBatchWhenSyncFails() throws Exception {
+        // given
+        given(channel.basicGet("coupon.issue.dlq", false)).willReturn(
+                response(1, "user-1", "rejected"),
+                response(2, "user-2", "rejected"));
+        doThrow(new CannotAcquireLockException("락 대기 초과")).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+        CouponIssueDlqReplayer.Progress progress = new CouponIssueDlqReplayer.Progress(Long.MAX_VALUE);
+
+        // when & then
+        assertThrows(CannotAcquireLockException.class, () -> replayer.replay(channel, progress));
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertThat(progress.toReport().getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("실패: 일시적이지 않은 오류로 배치 저장에 실패하면 메시지별로 다시 저장하고 실패한 메시지만 보류한다.")
+    void parksOnlyFailingMessagesWhenBatchFails() throws Exception {
+        // given
+        given(channel.basicGet("coupon.issue.dlq", false)).willReturn(
+                response(1, "user-1", "rejected"),
+                response(2, "broken", "rejected"),
+                response(3, "user-3", "expired"),
+                null);
+        given(couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(anyList())).willAnswer(invocation -> {
+            List<CouponIssueMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getUserId().equals("broken"))) {
+                throw new IllegalStateException("저장 확인 실패");
+            }
+            return messages;
+        });
+
+        // when
+        CouponIssueDlqReplayer.Progress progress = new CouponIssueDlqReplayer.Progress(Long.MAX_VALUE);
+        replayer.replay(channel, progress);
+
+        // then
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(3, false);
+        verify(channel, never()).basicAck(2, false);
+        verify(channel).basicNack(2, false, true);
+
+        CouponIssueDlqReplayReport report = progress.toReport();
+        assertThat(report.getReplayed()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getReplayedByReason()).containsEntry("rejected", 1L).containsEntry("expired", 1L);
+    }
+
+    private void willInsertAll() {
+        given(couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private GetResponse response(long deliveryTag, String body, String reason) {
+        AMQP.BasicProperties.Builder properties = new AMQP.BasicProperties.Builder();
+        if (reason != null) {
+            properties.headers(Map.of("x-death", List.of(Map.of("reason", reason, "queue", "coupon.issue.queue", "count", 1L))));
+        }
+        return new GetResponse(new Envelope(deliveryTag, false, "coupon.exchange.dlx", "dead.letter"),
+                properties.build(), body.getBytes(StandardCharsets.UTF_8), 0);
+    }
+}
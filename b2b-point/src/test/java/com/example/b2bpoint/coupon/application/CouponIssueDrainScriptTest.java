@@ -0,0 +1,51 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lua 스택 한도(약 8000개)를 넘는 청크도 요청 손실 없이 처리 중 리스트로 옮겨지는지 실제 Redis 로 확인합니다.
+@SpringBootTest
+class CouponIssueDrainScriptTest {
+
+    private static final String BUFFER_KEY = "coupon:issue:requests:script-test";
+    private static final String PROCESSING_KEY = "coupon:issue:requests:script-test:processing";
+    private static final RedisScript<List> DRAIN_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/coupon_issue_drain.lua"), List.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(List.of(BUFFER_KEY, PROCESSING_KEY));
+    }
+
+    @Test
+    @DisplayName("8000개를 넘는 청크도 버퍼에서 꺼낸 순서대로 모두 처리 중 리스트로 옮긴다")
+    @SuppressWarnings("unchecked")
+    void drainsChunkLargerThanLuaStackLimit() {
+        // given: LPUSH 로 적재되므로 request-0 이 가장 오래된 요청입니다.
+        List<String> requests = IntStream.range(0, 9500).mapToObj(i -> "request-" + i).toList();
+        redisTemplate.opsForList().leftPushAll(BUFFER_KEY, requests);
+
+        // when
+        List<String> drained = redisTemplate.execute(DRAIN_SCRIPT, List.of(BUFFER_KEY, PROCESSING_KEY), "9000");
+
+        // then
+        assertThat(drained).hasSize(9000);
+        assertThat(drained).containsExactlyElementsOf(requests.subList(0, 9000));
+        assertThat(redisTemplate.opsForList().range(PROCESSING_KEY, 0, -1)).containsExactlyElementsOf(requests.subList(0, 9000));
+        assertThat(redisTemplate.opsForList().size(BUFFER_KEY)).isEqualTo(500);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.common.exception.CustomException;
+import com.example.b2bpoint.common.exception.ErrorCode;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CouponIssueProducerTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final List<CorrelationData> sent = new ArrayList<>();
+
+    private CouponIssueProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> sent.add(invocation.getArgument(3)))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        producer = new CouponIssueProducer(rabbitTemplate, mock(CouponIssueBatchPublisher.class));
+        ReflectionTestUtils.setField(producer, "mode", CouponIssueProducer.Mode.CONFIRM);
+        ReflectionTestUtils.setField(producer, "maxInFlight", 1);
+        ReflectionTestUtils.setField(producer, "inFlightWaitMs", 10L);
+        ReflectionTestUtils.setField(producer, "confirmTimeoutMs", 200L);
+        ReflectionTestUtils.setField(producer, "callbackThreads", 2);
+        producer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.shutdown();
+    }
+
+    @Test
+    @DisplayName("브로커가 ack 하면 정상 완료되고 미확인 자리를 반납한다")
+    void sendAsync_completesOnAck() throws Exception {
+        // given
+        CompletableFuture<Void> future = producer.sendAsync(message("t-1"));
+
+        // when
+        sent.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        // then
+        future.get(1, TimeUnit.SECONDS);
+        producer.sendAsync(message("t-2"));
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("브로커가 nack 하면 예외로 완료되어 호출자가 예약을 취소할 수 있다")
+    void sendAsync_failsOnNack() {
+        // given
+        CompletableFuture<Void> future = producer.sendAsync(message("t-1"));
+
+        // when
+        sent.get(0).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(AmqpException.class);
+    }
+
+    @Test
+    @DisplayName("확인 시간이 초과되면 늦은 ack 로 전달될 수 있으므로 정상 완료해 예약을 유지한다")
+    void sendAsync_keepsReservationOnConfirmTimeout() throws Exception {
+        // given
+        CompletableFuture<Void> future = producer.sendAsync(message("t-1"));
+
+        // when & then
+        future.get(1, TimeUnit.SECONDS);
+        assertThat(future).isCompleted().isNotCompletedExceptionally();
+        producer.sendAsync(message("t-2"));
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("미확인 메시지가 max-in-flight 에 도달하면 기다리지 않고 거절한다")
+    void sendAsync_rejectsWhenInFlightIsFull() {
+        // given
+        producer.sendAsync(message("t-1"));
+
+        // when & then
+        CustomException exception = assertThrows(CustomException.class, () -> producer.sendAsync(message("t-2")));
+        assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.MESSAGING_SYSTEM_ERROR);
+    }
+
+    private CouponIssueMessage message(String ticketId) {
+        return new CouponIssueMessage(1L, 1L, "user-" + ticketId, LocalDateTime.now().plusDays(1), ticketId, "CODE-" + ticketId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.application.CouponIssueReconciler.TemplateCount;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueReconcilerTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private CouponTemplateRepository couponTemplateRepository;
+    @Mock private CouponStockManager couponStockManager;
+    @Mock private CouponTemplateLoader couponTemplateLoader;
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    private CouponIssueReconciler reconciler;
+
+    // 노드들이 공유하는 Redis 의 직전 차이 해시
+    private final Map<String, Map<Object, Object>> hashes = new HashMap<>();
+
+    private final CouponTemplateCacheDto template = CouponTemplateCacheDto.builder().id(5L).totalQuantity(100).build();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        reconciler = newReconciler();
+
+        given(redisTemplate.opsForHash()).willReturn(hashOperations);
+        given(hashOperations.entries(anyString()))
+                .willAnswer(invocation -> hashes.getOrDefault(invocation.<String>getArgument(0), Map.of()));
+        lenient().doAnswer(invocation -> hashes.put(invocation.getArgument(0),
+                        new HashMap<Object, Object>(invocation.<Map<Object, Object>>getArgument(1))))
+                .when(hashOperations).putAll(anyString(), anyMap());
+        lenient().doAnswer(invocation -> hashes.remove(invocation.<String>getArgument(0)) != null)
+                .when(redisTemplate).delete(anyString());
+        given(couponTemplateLoader.load(5L)).willReturn(template);
+        lenient().when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+                .thenReturn(List.of(new TemplateCount(5L, 12L, 10L)));
+    }
+
+    @Test
+    @DisplayName("REPORT 정책에서는 차이가 있어도 보정하지 않는다.")
+    void reportOnly() {
+        // given
+        ReflectionTestUtils.setField(reconciler, "policy", CouponIssueReconciler.Policy.REPORT);
+        given(couponStockManager.reservedCount(template)).willReturn(8L);
+
+        // when
+        reconciler.reconcileActiveTemplates();
+        reconciler.reconcileActiveTemplates();
+
+        // then
+        verify(couponTemplateRepository, never()).reconcileIssuedQuantity(anyLong());
+        verify(couponStockManager, never()).raiseReservedCount(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("ALL 정책에서는 두 번 연속 확인된 차이만 보정한다.")
+    void correctsConfirmedDrift() {
+        // given
+        ReflectionTestUtils.setField(reconciler, "policy", CouponIssueReconciler.Policy.ALL);
+        given(couponStockManager.reservedCount(template)).willReturn(8L);
+
+        // when
+        reconciler.reconcileActiveTemplates();
+
+        // then
+        verify(couponTemplateRepository, never()).reconcileIssuedQuantity(anyLong());
+        verify(couponStockManager, never()).raiseReservedCount(any(), anyLong());
+
+        // when
+        reconciler.reconcileActiveTemplates();
+
+        // then
+        verify(couponTemplateRepository).reconcileIssuedQuantity(5L);
+        verify(couponStockManager).raiseReservedCount(template, 10L);
+    }
+
+    @Test
+    @DisplayName("직전 차이는 Redis 에 남으므로 다른 노드가 이어서 실행해도 두 번째 실행에서 보정한다.")
+    void correctsDriftObservedByAnotherNode() {
+        // given
+        ReflectionTestUtils.setField(reconciler, "policy", CouponIssueReconciler.Policy.COLUMN);
+        given(couponStockManager.reservedCount(template)).willReturn(10L);
+        CouponIssueReconciler otherNode = newReconciler();
+        ReflectionTestUtils.setField(otherNode, "policy", CouponIssueReconciler.Policy.COLUMN);
+
+        // when
+        reconciler.reconcileActiveTemplates();
+        otherNode.reconcileActiveTemplates();
+
+        // then
+        assertThat(hashes.get(CouponIssueReconciler.COLUMN_DRIFT_KEY)).containsEntry("5", "2");
+        verify(couponTemplateRepository).reconcileIssuedQuantity(5L);
+    }
+
+    @Test
+    @DisplayName("Redis 카운터가 쿠폰 수보다 큰 것은 처리 중 요청일 수 있으므로 보정하지 않는다.")
+    void ignoresRedisAheadOfDatabase() {
+        // given
+        ReflectionTestUtils.setField(reconciler, "policy", CouponIssueReconciler.Policy.ALL);
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+                .willReturn(List.of(new TemplateCount(5L, 10L, 10L)));
+        given(couponStockManager.reservedCount(template)).willReturn(15L);
+
+        // when
+        reconciler.reconcileActiveTemplates();
+        reconciler.reconcileActiveTemplates();
+
+        // then
+        verify(couponTemplateRepository, never()).reconcileIssuedQuantity(anyLong());
+        verify(couponStockManager, never()).raiseReservedCount(any(), anyLong());
+    }
+
+    private CouponIssueReconciler newReconciler() {
+        CouponIssueReconciler created = new CouponIssueReconciler(jdbcTemplate, couponTemplateRepository, couponStockManager,
+                couponTemplateLoader, redisTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(created, "pageSize", 500);
+        ReflectionTestUtils.setField(created, "activeGraceHours", 24L);
+        created.init();
+        return created;
+    }
+}
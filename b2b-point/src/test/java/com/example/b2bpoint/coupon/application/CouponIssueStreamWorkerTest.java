@@ -0,0 +1,197 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueStreamWorkerTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private StreamOperations<String, Object, Object> streamOperations;
+    @Mock private CouponIssueSyncService couponIssueSyncService;
+    @Mock private CouponIssueTicketStore couponIssueTicketStore;
+
+    private CouponIssueStreamWorker worker;
+
+    private static final String STREAM_KEY = "coupon:issue:stream";
+    private static final String MESSAGE_JSON =
+            "{\"partnerId\":1,\"couponTemplateId\":5,\"userId\":\"user-1\",\"validUntil\":\"2030-01-01T00:00:00\"}";
+    private static final String POISON_JSON =
+            "{\"partnerId\":1,\"couponTemplateId\":5,\"userId\":\"poison\",\"validUntil\":null}";
+
+    @BeforeEach
+    void setUp() {
+        worker = new CouponIssueStreamWorker(redisTemplate, couponIssueSyncService,
+                new ObjectMapper().registerModule(new JavaTimeModule()), couponIssueTicketStore);
+        ReflectionTestUtils.setField(worker, "batchSize", 100);
+        ReflectionTestUtils.setField(worker, "claimIdleMs", 60000L);
+        ReflectionTestUtils.setField(worker, "maxDeliveries", 5L);
+        given(redisTemplate.opsForStream()).willReturn(streamOperations);
+    }
+
+    @Test
+    @DisplayName("성공: 오래 ack 되지 않은 항목은 가져와 저장한 뒤 ack 하고, 한도를 넘긴 항목은 데드레터로 옮긴다.")
+    void reclaimIdleEntries() {
+        // given
+        RecordId idle = RecordId.of("1-0");
+        RecordId exhausted = RecordId.of("2-0");
+        RecordId fresh = RecordId.of("3-0");
+        Consumer deadWorker = Consumer.from(CouponIssueStreamWorker.GROUP_NAME, "dead-worker");
+        given(streamOperations.pending(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), any(Range.class), eq(100L)))
+                .willReturn(new PendingMessages(CouponIssueStreamWorker.GROUP_NAME, List.of(
+                        new PendingMessage(idle, deadWorker, Duration.ofMinutes(2), 1),
+                        new PendingMessage(exhausted, deadWorker, Duration.ofMinutes(2), 5),
+                        new PendingMessage(fresh, deadWorker, Duration.ofSeconds(1), 1))));
+        given(streamOperations.claim(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), anyString(), any(Duration.class), eq(idle)))
+                .willReturn(List.of(record(idle)));
+        given(streamOperations.claim(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), anyString(), any(Duration.class), eq(exhausted)))
+                .willReturn(List.of(record(exhausted)));
+
+        // when
+        worker.reclaimIdleEntries();
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+        verify(streamOperations).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, idle);
+        verify(streamOperations).add(eq(STREAM_KEY + ":dead"), anyMap());
+        verify(streamOperations).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, exhausted);
+        verify(couponIssueTicketStore).markFailed(argThat(messages -> messages.size() == 1));
+        verify(streamOperations, never()).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, fresh);
+    }
+
+    @Test
+    @DisplayName("실패: 저장에 실패하면 ack 하지 않아 항목이 pending 으로 남는다.")
+    void reclaimIdleEntries_keepsPendingWhenSyncFails() {
+        // given
+        RecordId idle = RecordId.of("1-0");
+        given(streamOperations.pending(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), any(Range.class), eq(100L)))
+                .willReturn(new PendingMessages(CouponIssueStreamWorker.GROUP_NAME, List.of(
+                        new PendingMessage(idle, Consumer.from(CouponIssueStreamWorker.GROUP_NAME, "dead-worker"),
+                                Duration.ofMinutes(2), 1))));
+        given(streamOperations.claim(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), anyString(), any(Duration.class), eq(idle)))
+                .willReturn(List.of(record(idle)));
+        doThrow(new RuntimeException("DB 오류")).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+
+        // when
+        try {
+            worker.reclaimIdleEntries();
+        } catch (RuntimeException ignored) {
+        }
+
+        // then
+        verify(streamOperations, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+        verifyNoInteractions(couponIssueTicketStore);
+    }
+
+    @Test
+    @DisplayName("실패: 배치 저장이 실패하면 항목별로 다시 저장해 실패한 항목만 pending 으로 남긴다.")
+    void reclaimIdleEntries_leavesOnlyFailingRecordPending() {
+        // given
+        RecordId valid = RecordId.of("1-0");
+        RecordId poison = RecordId.of("2-0");
+        Consumer deadWorker = Consumer.from(CouponIssueStreamWorker.GROUP_NAME, "dead-worker");
+        given(streamOperations.pending(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), any(Range.class), eq(100L)))
+                .willReturn(new PendingMessages(CouponIssueStreamWorker.GROUP_NAME, List.of(
+                        new PendingMessage(valid, deadWorker, Duration.ofMinutes(2), 1),
+                        new PendingMessage(poison, deadWorker, Duration.ofMinutes(2), 1))));
+        given(streamOperations.claim(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), anyString(), any(Duration.class),
+                eq(valid), eq(poison)))
+                .willReturn(List.of(record(valid), record(poison, POISON_JSON)));
+        doAnswer(invocation -> {
+            List<CouponIssueMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getValidUntil() == null)) {
+                throw new IllegalArgumentException("validUntil 없음");
+            }
+            return null;
+        }).when(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(anyList());
+
+        // when
+        worker.reclaimIdleEntries();
+
+        // then
+        verify(streamOperations).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, valid);
+        verify(streamOperations, never()).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, poison);
+        verify(streamOperations, never()).add(eq(STREAM_KEY + ":dead"), anyMap());
+        verifyNoInteractions(couponIssueTicketStore);
+    }
+
+    @Test
+    @DisplayName("실패: 역직렬화할 수 없는 항목은 버리지 않고 데드레터 스트림으로 옮긴 뒤 ack 한다.")
+    void reclaimIdleEntries_deadLettersUnparsableRecord() {
+        // given
+        RecordId valid = RecordId.of("1-0");
+        RecordId broken = RecordId.of("2-0");
+        Consumer deadWorker = Consumer.from(CouponIssueStreamWorker.GROUP_NAME, "dead-worker");
+        given(streamOperations.pending(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), any(Range.class), eq(100L)))
+                .willReturn(new PendingMessages(CouponIssueStreamWorker.GROUP_NAME, List.of(
+                        new PendingMessage(valid, deadWorker, Duration.ofMinutes(2), 1),
+                        new PendingMessage(broken, deadWorker, Duration.ofMinutes(2), 1))));
+        given(streamOperations.claim(eq(STREAM_KEY), eq(CouponIssueStreamWorker.GROUP_NAME), anyString(), any(Duration.class),
+                eq(valid), eq(broken)))
+                .willReturn(List.of(record(valid), record(broken, "{not-json")));
+
+        // when
+        worker.reclaimIdleEntries();
+
+        // then
+        verify(couponIssueSyncService).issueCouponsAndUpdateQuantityInBatch(argThat(messages -> messages.size() == 1));
+        verify(streamOperations).add(STREAM_KEY + ":dead", Map.of("message", "{not-json"));
+        verify(streamOperations).acknowledge(STREAM_KEY, CouponIssueStreamWorker.GROUP_NAME, valid, broken);
+    }
+
+    @Test
+    @DisplayName("성공: 데드레터 스트림의 항목을 원래 스트림에 다시 넣고 데드레터에서 지운다.")
+    void replayDeadLetters() {
+        // given
+        RecordId first = RecordId.of("1-0");
+        RecordId second = RecordId.of("2-0");
+        given(streamOperations.range(eq(STREAM_KEY + ":dead"), any(Range.class), any(Limit.class)))
+                .willReturn(List.of(record(first), record(second)));
+
+        // when
+        long replayed = worker.replayDeadLetters(10);
+
+        // then
+        assertThat(replayed).isEqualTo(2);
+        verify(streamOperations, times(2)).add(STREAM_KEY, Map.of("message", MESSAGE_JSON));
+        verify(streamOperations).delete(STREAM_KEY + ":dead", first);
+        verify(streamOperations).delete(STREAM_KEY + ":dead", second);
+    }
+
+    private MapRecord<String, Object, Object> record(RecordId id) {
+        return record(id, MESSAGE_JSON);
+    }
+
+    private MapRecord<String, Object, Object> record(RecordId id, String json) {
+        return StreamRecords.<String, Object, Object>mapBacked(Map.<Object, Object>of("message", json))
+                .withStreamKey(STREAM_KEY)
+                .withId(id);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.common.domain.SnowflakeIdGenerator;
+import com.example.b2bpoint.coupon.dto.CouponIssueMessage;
+import com.example.b2bpoint.coupon.repository.CouponRepository;
+import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class CouponIssueSyncServiceTest {
+
+    private final CouponTemplateRepository couponTemplateRepository = mock(CouponTemplateRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CouponIssueTicketStore couponIssueTicketStore = mock(CouponIssueTicketStore.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // (템플릿ID:사용자ID) -> [id, code] 로 흉내 낸 coupons 테이블
+    private final Map<String, Object[]> table = new ConcurrentHashMap<>();
+    // 코드 충돌 등으로 저장되지 않는 사용자
+    private final Set<String> rejectedUsers = ConcurrentHashMap.newKeySet();
+
+    private CouponIssueSyncService couponIssueSyncService;
+
+    private final List<CouponIssueMessage> messages = IntStream.range(0, 20)
+            .mapToObj(i -> new CouponIssueMessage(1L, 5L, "user-" + i, LocalDateTime.now().plusDays(1)))
+            .toList();
+
+    @BeforeEach
+    void setUp() {
+        SnowflakeIdGenerator.configure(1);
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        given(jdbcTemplate.queryForObject(contains("uk_coupons_template_user"), eq(Integer.class))).willReturn(2);
+        willReadPersistedRows();
+        couponIssueSyncService = new CouponIssueSyncService(couponTemplateRepository, mock(CouponRepository.class),
+                jdbcTemplate, couponIssueTicketStore, mock(CouponStockManager.class), mock(CouponTemplateLoader.class),
+                new TransactionTemplate(transactionManager), new CompactCouponCodeGenerator(1));
+        ReflectionTestUtils.setField(couponIssueSyncService, "parallelism", 4);
+        ReflectionTestUtils.setField(couponIssueSyncService, "parallelThreshold", 1);
+        couponIssueSyncService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        couponIssueSyncService.shutdown();
+    }
+
+    @Test
+    @DisplayName("성공: 파티션별로 나눠 저장하고 템플릿 발급 수량은 한 번만 갱신한다.")
+    void parallel_success() {
+        // given
+        willInsertAllRows();
+
+        // when
+        couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+
+        // then
+        verify(jdbcTemplate, atLeast(2)).update(startsWith("INSERT INTO coupons"), any(PreparedStatementSetter.class));
+        verify(couponTemplateRepository).increaseIssuedQuantity(5L, 20);
+        verify(couponIssueTicketStore).markIssued(argThat(issued -> issued.size() == 20
+                && issued.stream().allMatch(message -> persistedCode(message.getUserId()).equals(message.getCode()))));
+    }
+
+    @Test
+    @DisplayName("실패: 한 파티션이 실패하면 커밋된 파티션의 수량만 반영하고, 실패한 요청의 티켓은 재시도를 위해 PENDING 으로 둔다.")
+    void parallel_partialFailure() {
+        // given
+        int failedPartitionSize = (int) messages.stream()
+                .filter(message -> Math.floorMod(message.getUserId().hashCode(), 4) == Math.floorMod("user-0".hashCode(), 4))
+                .count();
+        doAnswer(invocation -> {
+            List<Object> params = parameters(invocation.getArgument(1));
+            if (params.contains("user-0")) {
+                throw new IllegalStateException("DB 오류");
+            }
+            return insertRows(params);
+        }).when(jdbcTemplate).update(startsWith("INSERT INTO coupons"), any(PreparedStatementSetter.class));
+
+        // when & then
+        assertThrows(IllegalStateException.class,
+                () -> couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages));
+
+        verify(couponTemplateRepository).increaseIssuedQuantity(5L, 20 - failedPartitionSize);
+        verify(couponIssueTicketStore).markIssued(argThat(issued -> issued.size() == 20 - failedPartitionSize
+                && issued.stream().noneMatch(message -> message.getUserId().equals("user-0"))));
+        verify(couponIssueTicketStore, never()).markFailed(anyList());
+    }
+
+    @Test
+    @DisplayName("성공: 배치 안의 중복 요청은 제외하고, 이미 저장된 행은 발급 수량에 포함하지 않으며 저장된 코드로 티켓을 기록한다.")
+    void batch_countsOnlyInsertedRows() {
+        // given
+        ReflectionTestUtils.setField(couponIssueSyncService, "parallelThreshold", 100);
+        List<CouponIssueMessage> withDuplicates = new ArrayList<>(messages);
+        withDuplicates.add(messages.get(0));
+        IntStream.range(0, 3).forEach(i -> table.put("5:user-" + i, new Object[]{-1L - i, "EXISTING-" + i}));
+        willInsertAllRows();
+
+        // when
+        couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(withDuplicates);
+
+        // then
+        verify(jdbcTemplate).update(argThat((String sql) -> rowCount(sql) == 20), any(PreparedStatementSetter.class));
+        verify(couponTemplateRepository).increaseIssuedQuantity(5L, 17);
+        verify(couponIssueTicketStore).markIssued(argThat(issued -> issued.size() == 21
+                && issued.get(0).getCode().equals("EXISTING-0")
+                && issued.get(20).getCode().equals("EXISTING-0")
+                && issued.get(2).getCode().equals("EXISTING-2")
+                && issued.get(3).getCode().equals(persistedCode("user-3"))));
+    }
+
+    @Test
+    @DisplayName("실패: (템플릿, 사용자) 중복이 아닌 이유로 저장되지 않은 행이 있으면 배치를 실패시키고 티켓을 ISSUED 로 기록하지 않는다.")
+    void batch_failsWhenRowIsNotPersisted() {
+        // given
+        ReflectionTestUtils.setField(couponIssueSyncService, "parallelThreshold", 100);
+        rejectedUsers.add("user-7");
+        willInsertAllRows();
+
+        // when & then
+        assertThrows(IllegalStateException.class,
+                () -> couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages));
+
+        verify(couponTemplateRepository, never()).increaseIssuedQuantity(anyLong(), anyInt());
+        verify(couponIssueTicketStore, never()).markIssued(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("성공: (템플릿, 사용자) 유니크 키가 없으면 병렬 저장을 사용하지 않고 하나의 트랜잭션으로 저장한다.")
+    void parallel_disabledWithoutUniqueKey() {
+        // given
+        couponIssueSyncService.shutdown();
+        ReflectionTestUtils.setField(couponIssueSyncService, "insertWorkers", null);
+        given(jdbcTemplate.queryForObject(contains("uk_coupons_template_user"), eq(Integer.class))).willReturn(0);
+        couponIssueSyncService.init();
+        willInsertAllRows();
+
+        // when
+        couponIssueSyncService.issueCouponsAndUpdateQuantityInBatch(messages);
+
+        // then
+        assertThat(ReflectionTestUtils.getField(couponIssueSyncService, "insertWorkers")).isNull();
+        verify(jdbcTemplate).update(argThat((String sql) -> rowCount(sql) == 20), any(PreparedStatementSetter.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    private void willInsertAllRows() {
+        given(jdbcTemplate.update(startsWith("INSERT INTO coupons"), any(PreparedStatementSetter.class)))
+                .willAnswer(invocation -> insertRows(parameters(invocation.getArgument(1))));
+    }
+
+    // INSERT ... ON DUPLICATE KEY UPDATE id = id: 이미 있는 (템플릿, 사용자) 행은 그대로 둡니다.
+    private int insertRows(List<Object> params) {
+        int inserted = 0;
+        for (int row = 0; row < params.size(); row += 10) {
+            String userId = (String) params.get(row + 2);
+            if (rejectedUsers.contains(userId)) {
+                continue;
+            }
+            if (table.putIfAbsent(params.get(row + 3) + ":" + userId, new Object[]{params.get(row), params.get(row + 7)}) == null) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    // SELECT id, user_id, code ... WHERE coupon_template_id = ? AND user_id IN (...)
+    private void willReadPersistedRows() {
+        doAnswer(invocation -> {
+            List<Object> params = parameters(invocation.getArgument(1));
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object userId : params.subList(1, params.size())) {
+                Object[] row = table.get(params.get(0) + ":" + userId);
+                if (row != null) {
+                    handler.processRow(resultSet((Long) row[0], (String) userId, (String) row[1]));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, user_id, code"), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+    }
+
+    private String persistedCode(String userId) {
+        return (String) table.get("5:" + userId)[1];
+    }
+
+    private static List<Object> parameters(PreparedStatementSetter setter) throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.setValues(ps);
+        return mockingDetails(ps).getInvocations().stream()
+                .sorted(Comparator.comparingInt(call -> (Integer) call.getArgument(0)))
+                .map(call -> call.getArgument(1))
+                .toList();
+    }
+
+    private static ResultSet resultSet(Long id, String userId, String code) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        given(rs.getLong("id")).willReturn(id);
+        given(rs.getString("user_id")).willReturn(userId);
+        given(rs.getString("code")).willReturn(code);
+        return rs;
+    }
+
+    private static int rowCount(String sql) {
+        return sql.split("\\(\\?", -1).length - 1;
+    }
+}
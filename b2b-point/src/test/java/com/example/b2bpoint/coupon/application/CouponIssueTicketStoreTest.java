@@ -0,0 +1,61 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponIssueTicketStatus;
+import com.example.b2bpoint.coupon.dto.CouponIssueTicketResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueTicketStoreTest {
+
+    @InjectMocks private CouponIssueTicketStore couponIssueTicketStore;
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    @BeforeEach
+    void setUp() {
+        given(redisTemplate.opsForHash()).willReturn(hashOperations);
+    }
+
+    @Test
+    @DisplayName("성공: 결과가 기록되지 않은 티켓은 PENDING 으로 조회된다.")
+    void find_whenNotRecorded() {
+        // given
+        given(hashOperations.entries("coupon:issue:ticket:1:ticket-1")).willReturn(Map.of());
+
+        // when
+        CouponIssueTicketResponse response = couponIssueTicketStore.find(1L, "ticket-1");
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(CouponIssueTicketStatus.PENDING);
+        assertThat(response.getCouponCode()).isNull();
+    }
+
+    @Test
+    @DisplayName("성공: 발급 완료된 티켓은 쿠폰 코드와 함께 조회된다.")
+    void find_whenIssued() {
+        // given
+        given(hashOperations.entries("coupon:issue:ticket:1:ticket-1"))
+                .willReturn(Map.of("status", "ISSUED", "code", "coupon-code"));
+
+        // when
+        CouponIssueTicketResponse response = couponIssueTicketStore.find(1L, "ticket-1");
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(CouponIssueTicketStatus.ISSUED);
+        assertThat(response.getCouponCode()).isEqualTo("coupon-code");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponTemplate;
+import com.example.b2bpoint.coupon.domain.CouponType;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.example.b2bpoint.coupon.repository.CouponTemplateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class CouponReaderTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    private CouponReader couponReader;
+
+    private final Long templateId = 1L;
+    private final String cacheKey = "coupon:template:1";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        couponReader = new CouponReader(redisTemplate, binaryRedisTemplate,
+                mock(CouponTemplateRepository.class),
+                List.of(new JsonCouponTemplateCodec(objectMapper), new BinaryCouponTemplateCodec()),
+                mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(couponReader, "cacheFormat", "JSON");
+        ReflectionTestUtils.setField(couponReader, "localCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(couponReader, "localCacheExpireSeconds", 60L);
+        couponReader.init();
+
+        CouponTemplateCacheDto dto = CouponTemplateCacheDto.builder()
+                .id(templateId).partnerId(1L).totalQuantity(100)
+                .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+                .build();
+        given(binaryRedisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.get(cacheKey)).willReturn(objectMapper.writeValueAsBytes(dto));
+    }
+
+    @Test
+    @DisplayName("성공: 한 번 읽은 템플릿은 로컬 캐시에서 반환되어 Redis를 다시 조회하지 않는다.")
+    void findTemplateFromCache_localHit() {
+        // when
+        CouponTemplateCacheDto first = couponReader.findTemplateFromCache(templateId);
+        CouponTemplateCacheDto second = couponReader.findTemplateFromCache(templateId);
+
+        // then
+        assertThat(second).isSameAs(first);
+        verify(valueOperations, times(1)).get(cacheKey);
+    }
+
+    @Test
+    @DisplayName("성공: 무효화 메시지를 받으면 로컬 캐시를 비우고 Redis에서 다시 읽는다.")
+    void onMessage_invalidatesLocalCache() {
+        // given
+        couponReader.findTemplateFromCache(templateId);
+
+        // when
+        couponReader.onMessage(new DefaultMessage(
+                "coupon:template:invalidate".getBytes(StandardCharsets.UTF_8),
+                String.valueOf(templateId).getBytes(StandardCharsets.UTF_8)), null);
+        couponReader.findTemplateFromCache(templateId);
+
+        // then
+        verify(valueOperations, times(2)).get(cacheKey);
+    }
+
+    @Test
+    @DisplayName("성공: 트랜잭션 안에서 갱신한 템플릿은 커밋 이후에만 캐시에 쓰고 무효화를 발행한다.")
+    void cacheTemplate_deferredUntilCommit() {
+        // given
+        CouponTemplate template = CouponTemplate.builder()
+                .partnerId(1L).name("템플릿").couponType(CouponType.FIXED_AMOUNT).discountValue(BigDecimal.valueOf(1000))
+                .totalQuantity(100).validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+                .build();
+        ReflectionTestUtils.setField(template, "id", templateId);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            couponReader.cacheTemplate(template);
+
+            // then
+            verify(valueOperations, never()).set(anyString(), any(byte[].class), any(Duration.class));
+            verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(valueOperations).set(eq(cacheKey), any(byte[].class), any(Duration.class));
+            verify(redisTemplate).convertAndSend("coupon:template:invalidate", String.valueOf(templateId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.b2bpoint.coupon.application;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponStockLeaseTest {
+
+    @Test
+    @DisplayName("동시성 테스트: 임차한 수량보다 많이 차감되지 않는다")
+    void tryTake_neverOversells() throws InterruptedException {
+        // given
+        CouponStockLease lease = new CouponStockLease(LocalDateTime.now().plusDays(1), 1);
+        lease.add(1000);
+
+        int numberOfRequests = 5000;
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        CountDownLatch latch = new CountDownLatch(numberOfRequests);
+        AtomicInteger successCount = new AtomicInteger();
+
+        // when
+        for (int i = 0; i < numberOfRequests; i++) {
+            executorService.submit(() -> {
+                try {
+                    if (lease.tryTake()) {
+                        successCount.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // then
+        assertThat(successCount.get()).isEqualTo(1000);
+        assertThat(lease.hasStock()).isFalse();
+        assertThat(lease.drain()).isZero();
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.CouponIssueResult;
+import com.example.b2bpoint.coupon.domain.CouponTemplate;
+import com.example.b2bpoint.coupon.domain.CouponType;
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import com.example.b2bpoint.coupon.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class CouponStockManagerTest {
+
+    private static final int STRIPES = 4;
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final SetOperations<String, String> setOperations = mock(SetOperations.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+    private final CouponSoldOutRegistry couponSoldOutRegistry = mock(CouponSoldOutRegistry.class);
+
+    private final CouponStockManager couponStockManager = new CouponStockManager(redisTemplate,
+            couponSoldOutRegistry, mock(CouponIssueBloomFilter.class), mock(CouponRepository.class));
+
+    private final CouponTemplateCacheDto template = CouponTemplateCacheDto.builder()
+            .id(7L).partnerId(1L).totalQuantity(400).stockStripes(STRIPES)
+            .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+            .build();
+    private final String userId = "user-1";
+    private final int home = CouponStockManager.homeStripe(userId, STRIPES);
+    private final int next = (home + 1) % STRIPES;
+
+    @BeforeEach
+    void setUp() {
+        given(redisTemplate.opsForSet()).willReturn(setOperations);
+        given(redisTemplate.opsForHash()).willReturn(hashOperations);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("분할 카운터의 할당량 합은 총 수량과 같다")
+    void allotmentsSumToTotalQuantity() {
+        int totalQuantity = 10_003;
+        int stripes = 8;
+
+        long sum = IntStream.range(0, stripes)
+                .mapToLong(stripe -> CouponStockManager.allotment(totalQuantity, stripes, stripe))
+                .sum();
+
+        assertThat(sum).isEqualTo(totalQuantity);
+        assertThat(CouponStockManager.allotment(totalQuantity, stripes, 0)).isEqualTo(1251);
+        assertThat(CouponStockManager.allotment(totalQuantity, stripes, 7)).isEqualTo(1250);
+    }
+
+    @Test
+    @DisplayName("같은 사용자는 항상 같은 분할로 배정된다")
+    void homeStripeIsStablePerUser() {
+        int stripe = CouponStockManager.homeStripe("user-123", 16);
+
+        assertThat(stripe).isBetween(0, 15);
+        assertThat(CouponStockManager.homeStripe("user-123", 16)).isEqualTo(stripe);
+        assertThat(CouponStockManager.homeStripe("user-" + Integer.MIN_VALUE, 16)).isBetween(0, 15);
+    }
+
+    @Test
+    @DisplayName("분할 수는 생성 시점에 고정되어 수량이 늘어도 바뀌지 않는다")
+    void stripeCountIsPinnedAtCreation() {
+        // given
+        CouponTemplate couponTemplate = CouponTemplate.builder()
+                .partnerId(1L).name("핫딜").couponType(CouponType.FIXED_AMOUNT).discountValue(BigDecimal.valueOf(1000))
+                .minOrderAmount(0).totalQuantity(4).stockStripes(8)
+                .validFrom(LocalDateTime.now()).validUntil(LocalDateTime.now().plusDays(1))
+                .build();
+
+        // when
+        couponTemplate.increaseTotalQuantity(10_000);
+
+        // then
+        assertThat(CouponTemplateCacheDto.fromEntity(couponTemplate).stripeCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("자기 분할이 소진되면 인접 분할의 재고를 확보한 뒤 자기 분할에 사용자를 기록한다")
+    void reserve_borrowsFromNextStripe() {
+        // given
+        givenHomeStripeSoldOut();
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(countKey(next))), anyString(), eq("1")))
+                .willReturn(1L);
+        given(setOperations.add(usersKey(home), userId)).willReturn(1L);
+
+        // when
+        CouponIssueResult result = couponStockManager.reserve(template, userId);
+
+        // then
+        assertThat(result).isEqualTo(CouponIssueResult.SUCCESS);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of(countKey(next))), eq("1"));
+    }
+
+    @Test
+    @DisplayName("같은 사용자의 다른 요청이 먼저 기록되었다면 확보한 재고를 같은 분할로 되돌린다")
+    void reserve_returnsBorrowedStockWhenUserAlreadyRecorded() {
+        // given
+        givenHomeStripeSoldOut();
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(countKey(next))), anyString(), eq("1")))
+                .willReturn(1L);
+        given(setOperations.add(usersKey(home), userId)).willReturn(0L);
+
+        // when
+        CouponIssueResult result = couponStockManager.reserve(template, userId);
+
+        // then
+        assertThat(result).isEqualTo(CouponIssueResult.ALREADY_ISSUED);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(countKey(next))), eq("1"));
+    }
+
+    @Test
+    @DisplayName("모든 분할이 소진되면 사용자를 기록하지 않고 소진으로 응답한다")
+    void reserve_soldOutWhenEveryStripeIsExhausted() {
+        // given
+        givenHomeStripeSoldOut();
+
+        // when
+        CouponIssueResult result = couponStockManager.reserve(template, userId);
+
+        // then
+        assertThat(result).isEqualTo(CouponIssueResult.SOLD_OUT);
+        verifyNoInteractions(setOperations);
+    }
+
+    @Test
+    @DisplayName("예약 취소 시 자기 분할에서 사용자를 지우고 반납 가능한 분할 카운터에 재고를 돌려준다")
+    void release_returnsStockToFirstStripeWithReservations() {
+        // given
+        given(setOperations.remove(usersKey(home), userId)).willReturn(1L);
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(countKey(home))), eq("1"))).willReturn(0L);
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(countKey(next))), eq("1"))).willReturn(1L);
+
+        // when
+        couponStockManager.release(template, userId);
+
+        // then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(countKey(next))), eq("1"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class),
+                eq(List.of(countKey((home + 2) % STRIPES))), eq("1"));
+        verify(couponSoldOutRegistry).clear(7L);
+    }
+
+    @Test
+    @DisplayName("분할하지 않은 템플릿도 예약 취소로 재고를 돌려주면 소진 기록을 해제한다")
+    void release_clearsSoldOutWhenStockReturned() {
+        // given
+        CouponTemplateCacheDto single = CouponTemplateCacheDto.builder()
+                .id(8L).partnerId(1L).totalQuantity(100).stockStripes(1)
+                .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+                .build();
+        given(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of("coupon:template:{8}:users", "coupon:template:{8}:count")), eq(userId))).willReturn(1L);
+
+        // when
+        couponStockManager.release(single, userId);
+
+        // then
+        verify(couponSoldOutRegistry).clear(8L);
+    }
+
+    @Test
+    @DisplayName("기록되지 않은 사용자의 예약 취소는 카운터를 건드리지 않는다")
+    void release_ignoresUnknownUser() {
+        // given
+        given(setOperations.remove(usersKey(home), userId)).willReturn(0L);
+
+        // when
+        couponStockManager.release(template, userId);
+
+        // then
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), eq("1"));
+        verifyNoInteractions(couponSoldOutRegistry);
+    }
+
+    private void givenHomeStripeSoldOut() {
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(usersKey(home), countKey(home))), eq(userId), anyString()))
+                .willReturn(3L);
+    }
+
+    private String usersKey(int stripe) {
+        return "coupon:template:{7:" + stripe + "}:users";
+    }
+
+    private String countKey(int stripe) {
+        return "coupon:template:{7:" + stripe + "}:count";
+    }
+
+    @Test
+    @DisplayName("임차한 재고는 메모리로 꺼낸 몫을 제외하고 노드의 임차 기록에 남긴다")
+    void reserveLeased_recordsBlockBeyondLocalSize() {
+        // given
+        enableLease();
+        CouponTemplateCacheDto single = singleCounterTemplate();
+        given(setOperations.add("coupon:template:{9}:users", userId)).willReturn(1L);
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of("coupon:template:{9}:count")), eq("1000"), eq("200")))
+                .willReturn(200L);
+
+        // when
+        CouponIssueResult result = couponStockManager.reserve(single, userId);
+
+        // then
+        assertThat(result).isEqualTo(CouponIssueResult.SUCCESS);
+        verify(hashOperations).increment(startsWith("coupon:stock:lease:{"), eq("9:1"), eq(180L));
+        assertThat(couponStockManager.hasLeasedStock(9L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("하트비트가 끊긴 노드의 임차 기록을 회수해 중앙 카운터로 반납한다")
+    void reclaimOrphanedLeases_returnsRecordedStock() {
+        // given
+        enableLease();
+        String orphanedKey = "coupon:stock:lease:{dead-node}";
+        @SuppressWarnings("unchecked")
+        Cursor<String> cursor = mock(Cursor.class);
+        doCallRealMethod().when(cursor).forEachRemaining(any());
+        given(cursor.hasNext()).willReturn(true, false);
+        given(cursor.next()).willReturn(orphanedKey);
+        given(redisTemplate.scan(any(ScanOptions.class))).willReturn(cursor);
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of(orphanedKey, orphanedKey + ":heartbeat"))))
+                .willReturn(List.of("9:1", "180"));
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of("coupon:template:{9}:count")), eq("180")))
+                .willReturn(180L);
+
+        // when
+        long reclaimed = couponStockManager.reclaimOrphanedLeases();
+
+        // then
+        assertThat(reclaimed).isEqualTo(180L);
+    }
+
+    @Test
+    @DisplayName("다른 노드가 이미 회수한 기록은 쓰지 않고 중앙 카운터에서 새로 임차한다")
+    void reserveLeased_doesNotSpendReclaimedRecord() {
+        // given: 첫 임차분 중 메모리로 꺼낸 20개를 모두 쓰고, 기록된 180개는 다른 노드가 회수한 상태
+        enableLease();
+        CouponTemplateCacheDto single = singleCounterTemplate();
+        given(setOperations.add("coupon:template:{9}:users", userId)).willReturn(1L);
+        given(redisTemplate.execute(any(RedisScript.class), eq(List.of("coupon:template:{9}:count")), eq("1000"), eq("200")))
+                .willReturn(200L);
+        for (int i = 0; i < 20; i++) {
+            couponStockManager.reserve(single, userId);
+        }
+        clearInvocations(hashOperations);
+
+        // when
+        CouponIssueResult result = couponStockManager.reserve(single, userId);
+
+        // then
+        assertThat(result).isEqualTo(CouponIssueResult.SUCCESS);
+        verify(redisTemplate).execute(any(RedisScript.class), argThat(keys -> keys.get(0).startsWith("coupon:stock:lease:{")),
+                eq("9:1"), eq("20"));
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of("coupon:template:{9}:count")), eq("1000"), eq("200"));
+        verify(hashOperations).increment(startsWith("coupon:stock:lease:{"), eq("9:1"), eq(180L));
+    }
+
+    @Test
+    @DisplayName("해시 태그 이전 형식의 카운터와 사용자 SET 을 현재 키로 옮기고 다른 키는 건드리지 않는다")
+    void migrateLegacyKeys_movesCounterAndUsers() {
+        // given
+        ReflectionTestUtils.setField(couponStockManager, "legacyKeyMigrationEnabled", true);
+        @SuppressWarnings("unchecked")
+        Cursor<String> cursor = mock(Cursor.class);
+        doCallRealMethod().when(cursor).forEachRemaining(any());
+        given(cursor.hasNext()).willReturn(true, true, true, true, false);
+        given(cursor.next()).willReturn("coupon:template:7:count", "coupon:template:7:users",
+                "coupon:template:7", "coupon:template:{8}:count");
+        given(redisTemplate.scan(any(ScanOptions.class))).willReturn(cursor);
+        given(valueOperations.get("coupon:template:7:count")).willReturn("120");
+        given(valueOperations.decrement("coupon:template:7:count", 120L)).willReturn(0L);
+        given(setOperations.distinctRandomMembers("coupon:template:7:users", 1000L))
+                .willReturn(Set.of("user-1", "user-2"), Set.of());
+
+        // when
+        couponStockManager.migrateLegacyKeys();
+
+        // then
+        verify(valueOperations).increment("coupon:template:{7}:count", 120L);
+        verify(redisTemplate).delete("coupon:template:7:count");
+        verify(setOperations).add(eq("coupon:template:{7}:users"), any(String[].class));
+        verify(setOperations).remove(eq("coupon:template:7:users"), any(Object[].class));
+        verify(valueOperations, never()).get("coupon:template:{8}:count");
+        verify(valueOperations, never()).get("coupon:template:7");
+    }
+
+    private void enableLease() {
+        ReflectionTestUtils.setField(couponStockManager, "leaseEnabled", true);
+        ReflectionTestUtils.setField(couponStockManager, "leaseBlockSize", 200);
+        ReflectionTestUtils.setField(couponStockManager, "leaseLocalSize", 20);
+    }
+
+    private CouponTemplateCacheDto singleCounterTemplate() {
+        return CouponTemplateCacheDto.builder()
+                .id(9L).partnerId(1L).totalQuantity(1000).stockStripes(1)
+                .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.dto.CouponTemplateCacheDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponTemplateLoaderTest {
+
+    @InjectMocks private CouponTemplateLoader couponTemplateLoader;
+
+    @Mock private CouponReader couponReader;
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private RedisMessageListenerContainer listenerContainer;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final Long templateId = 1L;
+    private final CouponTemplateCacheDto dto = CouponTemplateCacheDto.builder()
+            .id(templateId).partnerId(1L).totalQuantity(100)
+            .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(couponTemplateLoader, "waitMs", 10L);
+        ReflectionTestUtils.setField(couponTemplateLoader, "maxAttempts", 3);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("성공: 캐시 히트 시 락 없이 바로 반환한다.")
+    void load_whenCacheHit() {
+        // given
+        given(couponReader.findTemplateFromCache(templateId)).willReturn(dto);
+
+        // when
+        CouponTemplateCacheDto result = couponTemplateLoader.load(templateId);
+
+        // then
+        assertThat(result).isSameAs(dto);
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("성공: 캐시 미스 시 락을 획득한 노드가 DB 에서 적재하고 적재 완료를 알린다.")
+    void load_whenCacheMiss_andLockAcquired() {
+        // given
+        given(couponReader.findTemplateFromCache(templateId)).willReturn(null);
+        given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).willReturn(true);
+        given(couponReader.findTemplateFromDbAndCache(templateId)).willReturn(dto);
+
+        // when
+        CouponTemplateCacheDto result = couponTemplateLoader.load(templateId);
+
+        // then
+        assertThat(result).isSameAs(dto);
+        verify(redisTemplate).convertAndSend(eq("coupon:template:populated"), eq("1"));
+        verify(redisTemplate).delete("lock:coupon:template:1");
+    }
+
+    @Test
+    @DisplayName("성공: 락을 얻지 못하면 다른 노드의 적재 결과를 캐시에서 읽는다.")
+    void load_whenCacheMiss_andLockHeldByOtherNode() {
+        // given
+        given(couponReader.findTemplateFromCache(templateId)).willReturn(null, null, dto);
+        given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).willReturn(false);
+
+        // when
+        CouponTemplateCacheDto result = couponTemplateLoader.load(templateId);
+
+        // then
+        assertThat(result).isSameAs(dto);
+        verify(couponReader, never()).findTemplateFromDbAndCache(any());
+    }
+
+    @Test
+    @DisplayName("성공: 대기 횟수를 모두 소진하면 재귀 없이 DB 에서 직접 조회한다.")
+    void load_whenLockNeverReleased_fallsBackToDb() {
+        // given
+        given(couponReader.findTemplateFromCache(templateId)).willReturn(null);
+        given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).willReturn(false);
+        given(couponReader.findTemplateFromDbAndCache(templateId)).willReturn(dto);
+
+        // when
+        CouponTemplateCacheDto result = couponTemplateLoader.load(templateId);
+
+        // then
+        assertThat(result).isSameAs(dto);
+        verify(valueOperations, times(3)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.b2bpoint.coupon.application;
+
+import com.example.b2bpoint.coupon.domain.Coupon;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponTsvInputStreamTest {
+
+    private final LocalDateTime expiredAt = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("쿠폰마다 한 행을 컬럼 순서대로 탭으로 구분해 내보낸다")
+    void encodesOneRowPerCoupon() throws IOException {
+        // given
+        List<Coupon> coupons = List.of(
+                Coupon.createFromMessage(1L, "user-1", 5L, expiredAt, "code-1"),
+                Coupon.createFromMessage(1L, "user-2", 5L, expiredAt, "code-2"));
+
+        // when
+        String tsv = new String(new CouponTsvInputStream(coupons, List.of(101L, 102L)).readAllBytes(), StandardCharsets.UTF_8);
+
+        // then
+        String[] rows = tsv.split("\n");
+        assertThat(rows).hasSize(2);
+        String[] columns = rows[0].split("\t");
+        assertThat(columns).hasSize(10);
+        assertThat(columns[0]).isEqualTo("101");
+        assertThat(columns[1]).isEqualTo("1");
+        assertThat(columns[2]).isEqualTo("user-1");
+        assertThat(columns[3]).isEqualTo("5");
+        assertThat(columns[4]).isEqualTo("AVAILABLE");
+        assertThat(columns[6]).isEqualTo("2030-01-01 00:00:00.0");
+        assertThat(columns[7]).isEqualTo("code-1");
+    }
+
+    @Test
+    @DisplayName("탭, 개행, 역슬래시는 이스케이프하고 null 은 \\N 으로 내보낸다")
+    void escapesSpecialCharacters() {
+        assertThat(CouponTsvInputStream.escape("a\tb\nc\\d")).isEqualTo("a\\tb\\nc\\\\d");
+        assertThat(CouponTsvInputStream.escape(null)).isEqualTo("\\N");
+    }
+
+    @Test
+    @DisplayName("작은 버퍼로 나눠 읽어도 전체 내용이 같다")
+    void readsAcrossRowBoundaries() throws IOException {
+        // given
+        List<Coupon> coupons = List.of(
+                Coupon.createFromMessage(1L, "사용자-1", 5L, expiredAt, "code-1"),
+                Coupon.createFromMessage(1L, "사용자-2", 5L, expiredAt, "code-2"));
+        byte[] expected = new CouponTsvInputStream(coupons, List.of(101L, 102L)).readAllBytes();
+
+        // when
+        CouponTsvInputStream stream = new CouponTsvInputStream(coupons, List.of(101L, 102L));
+        byte[] buffer = new byte[7];
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        int read;
+        while ((read = stream.read(buffer, 0, buffer.length)) != -1) {
+            actual.write(buffer, 0, read);
+        }
+
+        // then
+        assertThat(actual.size()).isEqualTo(expected.length);
+    }
+}
@@ -32,6 +32,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -129,6 +130,7 @@ class CouponControllerTest {
                         .content(requestJson))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.data.name").value("테스트 쿠폰"))
+                .andExpect(jsonPath("$.data.id").isString()) // 2^53 을 넘는 ID 는 문자열로 내려간다
                 .andDo(print());
     }
 
@@ -165,7 +167,7 @@ class CouponControllerTest {
         CouponTemplate template = createCouponTemplate(1); // 1개 한정
 
         // [수정] DB를 직접 조작하는 대신, Redis의 상태를 조작하여 "소진된" 상황을 만듦
-        String countKey = String.format("coupon:template:%d:count", template.getId());
+        String countKey = String.format("coupon:template:{%d}:count", template.getId());
         redisTemplate.opsForValue().set(countKey, "1"); // 발급 카운트를 이미 1로 설정
 
         CouponIssueRequest request = new CouponIssueRequest(template.getId(), "user-2");
@@ -270,12 +272,14 @@ class CouponControllerTest {
                 .partnerId(partnerId)
                 .userId(userId)
                 .couponTemplate(template1)
+                .code(UUID.randomUUID().toString())
                 .build();
 
         Coupon coupon2 = Coupon.builder()
                 .partnerId(partnerId)
                 .userId(userId)
                 .couponTemplate(template2)
+                .code(UUID.randomUUID().toString())
                 .build();
 
 
@@ -305,7 +309,8 @@ class CouponControllerTest {
         CouponTemplate couponTemplate=createCouponTemplate(1);
 
         availableCoupon = couponRepository.save(
-                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil())
+                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil(),
+                        UUID.randomUUID().toString())
         );
         CouponUseRequest request = CouponUseRequest.builder()
                 .userId(availableCoupon.getUserId())
@@ -342,7 +347,8 @@ class CouponControllerTest {
         CouponTemplate couponTemplate=createCouponTemplate(1);
 
         availableCoupon = couponRepository.save(
-                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil())
+                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil(),
+                        UUID.randomUUID().toString())
         );
         availableCoupon.use(testPartner.getId(), availableCoupon.getUserId());
         couponRepository.saveAndFlush(availableCoupon); // DB에 즉시 반영
@@ -375,7 +381,8 @@ class CouponControllerTest {
         CouponTemplate couponTemplate=createCouponTemplate(1);
 
         availableCoupon = couponRepository.save(
-                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil())
+                Coupon.createFromMessage(testPartner.getId(), "test-user-123", couponTemplate.getId(), couponTemplate.getValidUntil(),
+                        UUID.randomUUID().toString())
         );
         String anotherUser = "another-user-789";
         CouponUseRequest request = CouponUseRequest.builder()
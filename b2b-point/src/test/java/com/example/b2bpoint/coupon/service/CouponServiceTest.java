@@ -2,9 +2,15 @@ package com.example.b2bpoint.coupon.service;
 
 import com.example.b2bpoint.common.exception.CustomException;
 import com.example.b2bpoint.common.exception.ErrorCode;
+import com.example.b2bpoint.coupon.application.CouponCodeGenerator;
 import com.example.b2bpoint.coupon.application.CouponIssueProducer;
+import com.example.b2bpoint.coupon.application.CouponIssueTicketStore;
 import com.example.b2bpoint.coupon.application.CouponReader;
+import com.example.b2bpoint.coupon.application.CouponSoldOutRegistry;
+import com.example.b2bpoint.coupon.application.CouponStockManager;
+import com.example.b2bpoint.coupon.application.CouponTemplateLoader;
 import com.example.b2bpoint.coupon.domain.Coupon;
+import com.example.b2bpoint.coupon.domain.CouponIssueResult;
 import com.example.b2bpoint.coupon.domain.CouponStatus;
 import com.example.b2bpoint.coupon.domain.CouponTemplate;
 import com.example.b2bpoint.coupon.domain.CouponType;
@@ -24,6 +30,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
 import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
@@ -33,6 +40,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +58,11 @@ class CouponServiceTest {
     @Mock private StringRedisTemplate redisTemplate;
     @Mock private CouponIssueProducer couponIssueProducer;
     @Mock private CouponReader couponReader;
+    @Mock private CouponTemplateLoader couponTemplateLoader;
+    @Mock private CouponStockManager couponStockManager;
+    @Mock private CouponSoldOutRegistry couponSoldOutRegistry;
+    @Mock private CouponIssueTicketStore couponIssueTicketStore;
+    @Mock private CouponCodeGenerator couponCodeGenerator;
 
     @Spy private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
@@ -86,14 +99,13 @@ class CouponServiceTest {
                     .build();
 
             given(couponTemplateRepository.save(any(CouponTemplate.class))).willReturn(filledTemplate);
-            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
             // when
             CouponTemplateResponse response = couponService.createCouponTemplate(partnerId, request);
 
             // then
             assertThat(response).isNotNull();
-            verify(valueOperations).set(anyString(), anyString(), any());
+            verify(couponReader).cacheTemplate(filledTemplate);
         }
 
         @Test
@@ -125,44 +137,12 @@ class CouponServiceTest {
 
 
 
-        @Test
-        @DisplayName("성공: 캐시 미스(Cache Miss) 시 DB 조회 후 쿠폰 발급 메시지를 전송한다.")
-        void success_whenCacheMiss() {
-            // given
-            Long templateId = 1L;
-            String userId = "user-123";
-            CouponIssueRequest request = new CouponIssueRequest(templateId, userId);
-            CouponTemplateCacheDto dbDto = CouponTemplateCacheDto.builder()
-                    .totalQuantity(100).partnerId(partnerId)
-                    .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1))
-                    .build();
-
-            given(couponReader.findTemplateFromCache(templateId)).willReturn(null);
-
-            given(redisTemplate.opsForValue().setIfAbsent(anyString(), anyString(), any(java.time.Duration.class)))
-                    .willReturn(true);
-
-            given(couponReader.findTemplateFromDbAndCache(templateId)).willReturn(dbDto);
-
-            given(redisTemplate.opsForSet().add(anyString(), anyString())).willReturn(1L);
-            given(redisTemplate.opsForValue().increment(anyString())).willReturn(10L);
-
-            // when
-            couponService.issueCouponAsync(partnerId, request);
-
-            // then
-            verify(couponReader).findTemplateFromDbAndCache(templateId);
-            verify(couponIssueProducer).send(any(CouponIssueMessage.class));
-        }
-
-
-
         @Test
         @DisplayName("실패: 이미 발급받은 사용자가 요청 시 예외가 발생한다.")
         void fail_whenCouponAlreadyIssued() {
             // given
-            given(couponReader.findTemplateFromCache(templateId)).willReturn(cacheDto);
-            given(setOperations.add(anyString(), anyString())).willReturn(0L); // 중복 시 0L 반환
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponStockManager.reserve(cacheDto, userId)).willReturn(CouponIssueResult.ALREADY_ISSUED);
 
             // when & then
             CustomException exception = assertThrows(CustomException.class, () ->
@@ -178,16 +158,17 @@ class CouponServiceTest {
         @DisplayName("성공: 캐시 히트(Cache Hit) 시 쿠폰 발급 메시지를 전송한다.")
         void success_whenCacheHit() {
             // given
-            given(couponReader.findTemplateFromCache(templateId)).willReturn(cacheDto);
-            given(setOperations.add(anyString(), anyString())).willReturn(1L);
-            given(valueOperations.increment(anyString())).willReturn(10L);
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponStockManager.reserve(cacheDto, userId)).willReturn(CouponIssueResult.SUCCESS);
 
             // when
             CouponIssueResponse response = couponService.issueCouponAsync(partnerId, request);
 
             // then
             assertThat(response.getMessage()).isEqualTo("쿠폰이 성공적으로 발급되었습니다.");
-            verify(couponIssueProducer).send(any(CouponIssueMessage.class));
+            assertThat(response.getTicketId()).isNotBlank();
+            verify(couponIssueProducer).send(argThat(message ->
+                    response.getTicketId().equals(message.getTicketId()) && message.getCode() != null));
         }
 
         @Test
@@ -197,27 +178,58 @@ class CouponServiceTest {
             cacheDto = CouponTemplateCacheDto.builder().totalQuantity(10).partnerId(partnerId)
                     .validFrom(LocalDateTime.now().minusDays(1)).validUntil(LocalDateTime.now().plusDays(1)).build();
 
-            given(couponReader.findTemplateFromCache(templateId)).willReturn(cacheDto);
-            given(setOperations.add(anyString(), anyString())).willReturn(1L);
-            given(valueOperations.increment(anyString())).willReturn(11L);
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponStockManager.reserve(cacheDto, userId)).willReturn(CouponIssueResult.SOLD_OUT);
 
             // when & then
-            assertThrows(CustomException.class, () ->
+            CustomException exception = assertThrows(CustomException.class, () ->
                     couponService.issueCouponAsync(partnerId, request)
             );
 
-            verify(setOperations).remove(anyString(), anyString());
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
+            verify(couponSoldOutRegistry).markSoldOut(templateId);
             verify(couponIssueProducer, never()).send(any());
         }
 
+        @Test
+        @DisplayName("실패: 소진으로 기록된 템플릿은 Redis 예약 없이 즉시 거절한다.")
+        void fail_whenSoldOutRegistered() {
+            // given
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponSoldOutRegistry.isSoldOut(templateId)).willReturn(true);
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class, () ->
+                    couponService.issueCouponAsync(partnerId, request)
+            );
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_ISSUE_QUANTITY_EXCEEDED);
+            verifyNoInteractions(couponIssueProducer);
+            verify(couponStockManager, never()).reserve(any(), anyString());
+        }
+
+        @Test
+        @DisplayName("실패: 다른 파트너의 템플릿은 소진 여부와 관계없이 권한 오류로 거절한다.")
+        void fail_whenOtherPartnerProbesSoldOut() {
+            // given
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class, () ->
+                    couponService.issueCouponAsync(2L, request)
+            );
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.FORBIDDEN_ACCESS);
+            verifyNoInteractions(couponSoldOutRegistry, couponIssueProducer);
+        }
+
 
         @Test
         @DisplayName("실패: 메시지 큐 전송 실패 시 예외가 발생하고 보정 로직이 실행된다.")
         void fail_whenMessageQueueFails() {
             // given
-            given(couponReader.findTemplateFromCache(templateId)).willReturn(cacheDto);
-            given(redisTemplate.opsForSet().add(anyString(), anyString())).willReturn(1L);
-            given(redisTemplate.opsForValue().increment(anyString())).willReturn(10L);
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponStockManager.reserve(cacheDto, userId)).willReturn(CouponIssueResult.SUCCESS);
 
             doThrow(new RuntimeException("MQ Connection Error")).when(couponIssueProducer).send(any());
 
@@ -228,8 +240,26 @@ class CouponServiceTest {
 
             assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.MESSAGING_SYSTEM_ERROR);
 
-            verify(redisTemplate.opsForValue()).decrement(anyString());
-            verify(redisTemplate.opsForSet()).remove(anyString(), anyString());
+            verify(couponStockManager).release(cacheDto, userId);
+        }
+
+        @Test
+        @DisplayName("실패: Publisher confirm 모드에서 브로커가 nack 하면 예약을 취소한다.")
+        void fail_whenPublisherConfirmNacked() {
+            // given
+            given(couponTemplateLoader.load(templateId)).willReturn(cacheDto);
+            given(couponStockManager.reserve(cacheDto, userId)).willReturn(CouponIssueResult.SUCCESS);
+            given(couponIssueProducer.isAsync()).willReturn(true);
+            given(couponIssueProducer.sendAsync(any(CouponIssueMessage.class)))
+                    .willReturn(CompletableFuture.failedFuture(new AmqpException("nack")));
+
+            // when
+            couponService.issueCouponAsync(partnerId, request);
+
+            // then
+            verify(couponIssueProducer, never()).send(any());
+            verify(couponStockManager).release(cacheDto, userId);
+            verify(couponIssueTicketStore).markFailed(anyList());
         }
 
     }
@@ -253,11 +283,13 @@ class CouponServiceTest {
                             .partnerId(partnerId)
                             .userId(userId)
                             .couponTemplate(mockTemplate1)
+                            .code("CODE-1")
                             .build(),
                     Coupon.builder()
                             .partnerId(partnerId)
                             .userId(userId)
                             .couponTemplate(mockTemplate2)
+                            .code("CODE-2")
                             .build()
             );
 
@@ -312,16 +344,18 @@ class CouponServiceTest {
                             .partnerId(partnerId)
                                     .userId(userId)
                                             .validUntil(LocalDateTime.now().plusDays(1))
+                                                    .code(couponCode)
                                                     .build();
 
-            given(couponRepository.findByCodeWithLock(couponCode))
-                    .willReturn(Optional.of(availableCoupon));
+            given(couponRepository.useIfAvailable(eq(couponCode), eq(partnerId), eq(userId), any(LocalDateTime.class),
+                    eq(CouponStatus.AVAILABLE), eq(CouponStatus.USED)))
+                    .willReturn(1);
 
             // when
             CouponUseResponse response = couponService.useCoupon(partnerId, userId, couponCode);
 
             // then
-            verify(couponRepository, times(1)).findByCodeWithLock(couponCode);
+            verify(couponRepository, never()).findByCode(anyString());
 
             assertThat(response.getStatus()).isEqualTo(CouponStatus.USED);
             assertThat(response.getUsedAt()).isNotNull();
@@ -332,7 +366,7 @@ class CouponServiceTest {
         void useCoupon_Fail_WhenCouponNotFound() {
             // given
             String nonExistentCode = "INVALID-CODE";
-            given(couponRepository.findByCodeWithLock(nonExistentCode))
+            given(couponRepository.findByCode(nonExistentCode))
                     .willReturn(Optional.empty());
 
             // when & then
@@ -342,8 +376,180 @@ class CouponServiceTest {
 
             assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_NOT_FOUND);
         }
+
+        @DisplayName("실패: 다른 사용자의 쿠폰이면 조건부 UPDATE 가 실패한 뒤 소유자 불일치 예외가 발생한다")
+        @Test
+        void useCoupon_Fail_WhenOwnerMismatch() {
+            // given
+            Coupon othersCoupon = Coupon.issueBuilder()
+                    .partnerId(1L)
+                    .userId("other-user")
+                    .validUntil(LocalDateTime.now().plusDays(1))
+                    .code("CODE")
+                    .build();
+            given(couponRepository.findByCode("CODE")).willReturn(Optional.of(othersCoupon));
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.useCoupon(1L, "test-user", "CODE"));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_OWNER_MISMATCH);
+            assertThat(othersCoupon.getStatus()).isEqualTo(CouponStatus.AVAILABLE);
+        }
+
+        @DisplayName("실패: 조회 시점에는 사용 가능해 보여도 UPDATE 가 실패했다면 이미 사용된 것으로 처리한다")
+        @Test
+        void useCoupon_Fail_WhenUsedConcurrently() {
+            // given
+            Coupon coupon = Coupon.issueBuilder()
+                    .partnerId(1L)
+                    .userId("test-user")
+                    .validUntil(LocalDateTime.now().plusDays(1))
+                    .code("CODE")
+                    .build();
+            given(couponRepository.findByCode("CODE")).willReturn(Optional.of(coupon));
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.useCoupon(1L, "test-user", "CODE"));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_ALREADY_USED_OR_EXPIRED);
+        }
     }
 
+    @Nested
+    @DisplayName("주문 쿠폰 일괄 사용(checkout)")
+    class CheckoutTest {
+
+        private final Long partnerId = 1L;
+        private final String userId = "test-user";
 
+        private Coupon coupon(String code, Long templateId) {
+            return Coupon.createFromMessage(partnerId, userId, templateId, LocalDateTime.now().plusDays(1), code);
+        }
 
-}
\ No newline at end of file
+        private CouponTemplateCacheDto template(Long id, CouponType type, String discountValue, Integer maxDiscountAmount, Integer minOrderAmount) {
+            return CouponTemplateCacheDto.builder()
+                    .id(id)
+                    .partnerId(partnerId)
+                    .name("템플릿-" + id)
+                    .couponType(type)
+                    .discountValue(new BigDecimal(discountValue))
+                    .maxDiscountAmount(maxDiscountAmount)
+                    .minOrderAmount(minOrderAmount)
+                    .build();
+        }
+
+        private CouponCheckoutRequest request(int orderAmount, String... codes) {
+            return CouponCheckoutRequest.builder()
+                    .userId(userId)
+                    .orderId(100L)
+                    .orderAmount(orderAmount)
+                    .couponCodes(List.of(codes))
+                    .build();
+        }
+
+        @DisplayName("성공: 캐시된 템플릿으로 쿠폰별 할인액을 계산하고 한 번의 UPDATE 로 모두 사용 처리한다")
+        @Test
+        void checkout_Success() {
+            // given
+            given(couponRepository.findByCodeIn(List.of("FIXED", "RATE")))
+                    .willReturn(List.of(coupon("RATE", 20L), coupon("FIXED", 10L)));
+            given(couponTemplateLoader.load(10L)).willReturn(template(10L, CouponType.FIXED_AMOUNT, "3000", null, 10000));
+            given(couponTemplateLoader.load(20L)).willReturn(template(20L, CouponType.PERCENTAGE, "15", 2000, null));
+            given(couponRepository.useAllIfAvailable(eq(List.of("FIXED", "RATE")), eq(partnerId), eq(userId), any(LocalDateTime.class),
+                    eq(CouponStatus.AVAILABLE), eq(CouponStatus.USED)))
+                    .willReturn(2);
+
+            // when
+            CouponCheckoutResponse response = couponService.checkout(partnerId, request(20000, "FIXED", "RATE"));
+
+            // then
+            assertThat(response.getCoupons()).extracting(CouponDiscountResponse::getDiscountAmount)
+                    .containsExactly(3000, 2000);
+            assertThat(response.getTotalDiscountAmount()).isEqualTo(5000);
+            assertThat(response.getPaymentAmount()).isEqualTo(15000);
+            verify(couponRepository, never()).findByCode(anyString());
+        }
+
+        @DisplayName("성공: 할인액 합계는 주문 금액을 넘지 않는다")
+        @Test
+        void checkout_DiscountNeverExceedsOrderAmount() {
+            // given
+            given(couponRepository.findByCodeIn(List.of("A", "B")))
+                    .willReturn(List.of(coupon("A", 10L), coupon("B", 10L)));
+            given(couponTemplateLoader.load(10L)).willReturn(template(10L, CouponType.FIXED_AMOUNT, "3000", null, null));
+            given(couponRepository.useAllIfAvailable(anyCollection(), eq(partnerId), eq(userId), any(LocalDateTime.class),
+                    eq(CouponStatus.AVAILABLE), eq(CouponStatus.USED)))
+                    .willReturn(2);
+
+            // when
+            CouponCheckoutResponse response = couponService.checkout(partnerId, request(5000, "A", "B"));
+
+            // then
+            assertThat(response.getCoupons()).extracting(CouponDiscountResponse::getDiscountAmount)
+                    .containsExactly(3000, 2000);
+            assertThat(response.getPaymentAmount()).isZero();
+        }
+
+        @DisplayName("실패: 최소 주문 금액을 충족하지 않으면 어떤 쿠폰도 사용 처리하지 않는다")
+        @Test
+        void checkout_Fail_WhenMinOrderAmountNotMet() {
+            // given
+            given(couponRepository.findByCodeIn(List.of("FIXED")))
+                    .willReturn(List.of(coupon("FIXED", 10L)));
+            given(couponTemplateLoader.load(10L)).willReturn(template(10L, CouponType.FIXED_AMOUNT, "3000", null, 10000));
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.checkout(partnerId, request(9000, "FIXED")));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_MIN_ORDER_AMOUNT_NOT_MET);
+            verify(couponRepository, never()).useAllIfAvailable(anyCollection(), any(), any(), any(), any(), any());
+        }
+
+        @DisplayName("실패: 일부 쿠폰이 UPDATE 시점에 이미 사용되었다면 전체를 실패 처리한다")
+        @Test
+        void checkout_Fail_WhenUsedConcurrently() {
+            // given
+            given(couponRepository.findByCodeIn(List.of("A", "B")))
+                    .willReturn(List.of(coupon("A", 10L), coupon("B", 10L)));
+            given(couponTemplateLoader.load(10L)).willReturn(template(10L, CouponType.FIXED_AMOUNT, "1000", null, null));
+            given(couponRepository.useAllIfAvailable(anyCollection(), eq(partnerId), eq(userId), any(LocalDateTime.class),
+                    eq(CouponStatus.AVAILABLE), eq(CouponStatus.USED)))
+                    .willReturn(1);
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.checkout(partnerId, request(20000, "A", "B")));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_ALREADY_USED_OR_EXPIRED);
+        }
+
+        @DisplayName("실패: 존재하지 않는 쿠폰 코드가 포함되면 예외가 발생한다")
+        @Test
+        void checkout_Fail_WhenCouponNotFound() {
+            // given
+            given(couponRepository.findByCodeIn(List.of("MISSING", "A")))
+                    .willReturn(List.of(coupon("A", 10L)));
+
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.checkout(partnerId, request(20000, "MISSING", "A")));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_NOT_FOUND);
+        }
+
+        @DisplayName("실패: 같은 쿠폰 코드가 두 번 포함되면 400 오류 코드로 거절하고 쿠폰을 조회하지 않는다")
+        @Test
+        void checkout_Fail_WhenCouponCodeDuplicated() {
+            // when & then
+            CustomException exception = assertThrows(CustomException.class,
+                    () -> couponService.checkout(partnerId, request(20000, "A", "A")));
+
+            assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.COUPON_CODE_DUPLICATED);
+            verify(couponRepository, never()).findByCodeIn(anyCollection());
+            verify(couponRepository, never()).useAllIfAvailable(anyCollection(), any(), any(), any(), any(), any());
+        }
+    }
+}